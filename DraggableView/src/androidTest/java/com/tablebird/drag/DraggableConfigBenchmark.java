@@ -0,0 +1,119 @@
+package com.tablebird.drag;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建500个{@link DraggableView}，对比每次解析样式与使用共享{@link DraggableConfig}的耗时
+ * <p>
+ * 耗时随设备变化，只输出到日志，仅供参考
+ */
+@RunWith(AndroidJUnit4.class)
+public class DraggableConfigBenchmark {
+
+    private static final String TAG = "DraggableConfigBenchmark";
+
+    private static final int BADGE_COUNT = 500;
+
+    private static final int ROUND_COUNT = 5;
+
+    @Test
+    public void inflateBadges_sharedConfigVersusParseEach() {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        //预热
+        inflateBadges(context, false);
+        inflateBadges(context, true);
+
+        long parseTime = 0;
+        long sharedTime = 0;
+        for (int i = 0; i < ROUND_COUNT; i++) {
+            parseTime += inflateBadges(context, false);
+            sharedTime += inflateBadges(context, true);
+        }
+        Log.i(TAG, String.format(Locale.US,
+                "%d badges: parse each %.2f ms, shared config %.2f ms",
+                BADGE_COUNT, parseTime / 1e6f / ROUND_COUNT, sharedTime / 1e6f / ROUND_COUNT));
+    }
+
+    @Test
+    public void obtain_concurrentCallersShareOneConfig() throws InterruptedException {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        DraggableConfig.clean();
+        final int threadCount = 4;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final DraggableConfig[] configs = new DraggableConfig[threadCount];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    configs[index] = DraggableConfig.obtain(context, null,
+                            R.attr.DraggableViewStyle);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (DraggableConfig config : configs) {
+            assertSame(configs[0], config);
+        }
+    }
+
+    @Test
+    public void getAnimationArray_returnsCopyOfSharedFrames() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        DraggableView first = new DraggableView(context);
+        DraggableView second = new DraggableView(context);
+        //默认样式带有消失动画帧
+        int[] animationArray = first.getAnimationArray();
+        assertNotNull(animationArray);
+        assertTrue(animationArray.length > 0);
+        assertNotSame(animationArray, first.getAnimationArray());
+        animationArray[0] = 0;
+        assertArrayEquals(first.getAnimationArray(), second.getAnimationArray());
+    }
+
+    /**
+     * @return 创建所有视图的耗时，纳秒
+     */
+    private static long inflateBadges(Context context, boolean sharedConfig) {
+        long time = 0;
+        DraggableConfig.clean();
+        for (int i = 0; i < BADGE_COUNT; i++) {
+            if (!sharedConfig) {
+                DraggableConfig.clean();
+            }
+            long start = System.nanoTime();
+            new DraggableView(context);
+            time += System.nanoTime() - start;
+        }
+        return time;
+    }
+}
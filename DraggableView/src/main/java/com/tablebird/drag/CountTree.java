@@ -0,0 +1,153 @@
+package com.tablebird.drag;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+
+/**
+ * 按标记保存的计数与领导关系，领导者的从属计数为所有跟随标记的计数之和
+ * <p>
+ * 计数属于标记而不是视图实例，列表中被回收、未附加到窗口或还没有创建视图的行仍然计入领导者的总数。
+ * 计数变化沿领导链向上传递，时间复杂度为层级深度。只保存有领导或有从属计数的标记，只在主线程使用
+ */
+class CountTree {
+
+    /**
+     * 领导者的从属计数变化
+     */
+    interface OnSubordinateCountChangedListener {
+        /**
+         * @param mark 从属计数变化的领导标记
+         */
+        void onSubordinateCountChanged(@NonNull String mark);
+    }
+
+    /**
+     * 计数向上传递的最大层级，防止领导标记成环
+     */
+    static final int MAX_DEPTH = 32;
+
+    private final HashMap<String, Node> mNodes = new HashMap<>();
+
+    @Nullable
+    private final OnSubordinateCountChangedListener mListener;
+
+    CountTree(@Nullable OnSubordinateCountChangedListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * 设置标记的领导，原领导链减去该标记的总数，新领导链加上该总数
+     *
+     * @param mark       标记
+     * @param leaderMark 领导标记，为空时取消领导关系
+     * @param count      标记自身的计数
+     */
+    void setLeader(@NonNull String mark, @Nullable String leaderMark, int count) {
+        Node node = mNodes.get(mark);
+        if (node == null) {
+            if (leaderMark == null) {
+                return;
+            }
+            node = new Node();
+            mNodes.put(mark, node);
+        }
+        int oldTotal = node.mCount + node.mSubordinateCount;
+        dispatch(node.mLeaderMark, -oldTotal);
+        node.mLeaderMark = leaderMark;
+        node.mCount = count;
+        dispatch(leaderMark, count + node.mSubordinateCount);
+        prune(mark, node);
+    }
+
+    /**
+     * 设置标记自身的计数，只有加入了领导关系的标记才会保存
+     *
+     * @param mark  标记
+     * @param count 计数
+     * @return true 标记已加入领导关系，计数已保存
+     */
+    boolean setCount(@NonNull String mark, int count) {
+        Node node = mNodes.get(mark);
+        if (node == null) {
+            return false;
+        }
+        int delta = count - node.mCount;
+        node.mCount = count;
+        dispatch(node.mLeaderMark, delta);
+        prune(mark, node);
+        return true;
+    }
+
+    /**
+     * 不按标记保存的计数变化，直接从领导开始向上传递，用于没有标记的跟随视图
+     *
+     * @param leaderMark 领导标记
+     * @param delta      计数变化
+     */
+    void dispatch(@Nullable String leaderMark, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        String mark = leaderMark;
+        for (int depth = 0; depth < MAX_DEPTH && mark != null; depth++) {
+            Node node = mNodes.get(mark);
+            if (node == null) {
+                node = new Node();
+                mNodes.put(mark, node);
+            }
+            node.mSubordinateCount += delta;
+            if (mListener != null) {
+                mListener.onSubordinateCountChanged(mark);
+            }
+            String next = node.mLeaderMark;
+            prune(mark, node);
+            mark = next;
+        }
+    }
+
+    /**
+     * @return 标记自身的计数，没有加入领导关系时为0
+     */
+    int getCount(@NonNull String mark) {
+        Node node = mNodes.get(mark);
+        return node != null ? node.mCount : 0;
+    }
+
+    /**
+     * @return 所有跟随标记的计数之和
+     */
+    int getSubordinateCount(@NonNull String mark) {
+        Node node = mNodes.get(mark);
+        return node != null ? node.mSubordinateCount : 0;
+    }
+
+    @Nullable
+    String getLeaderMark(@NonNull String mark) {
+        Node node = mNodes.get(mark);
+        return node != null ? node.mLeaderMark : null;
+    }
+
+    /**
+     * @return 保存的标记数量
+     */
+    int size() {
+        return mNodes.size();
+    }
+
+    /**
+     * 没有领导与从属计数的标记不再保存，其自身计数只由视图持有
+     */
+    private void prune(String mark, Node node) {
+        if (node.mLeaderMark == null && node.mSubordinateCount == 0) {
+            mNodes.remove(mark);
+        }
+    }
+
+    private static class Node {
+        String mLeaderMark;
+        int mCount;
+        int mSubordinateCount;
+    }
+}
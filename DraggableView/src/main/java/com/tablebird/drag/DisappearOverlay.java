@@ -0,0 +1,202 @@
+package com.tablebird.drag;
+
+import android.animation.Animator;
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.tablebird.drag.animation.DisappearAnimator;
+import com.tablebird.drag.animation.DisappearAnimatorSet;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+/**
+ * 在父视图的{@link android.view.ViewOverlay}中绘制不属于拖动的消失动画，
+ * 不需要创建{@link DraggableCover}与surface，动画区域必须在父视图范围内
+ * <p>
+ * 每个宿主只创建一个实例并重复使用，同一宿主上同时播放的动画集合共用该实例，只在主线程使用
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+class DisappearOverlay extends Drawable implements DisappearAnimator.Callback,
+        Animator.AnimatorListener {
+
+    /**
+     * 按宿主复用的实例，宿主被回收时一并释放
+     */
+    private static final WeakHashMap<View, DisappearOverlay> sOverlays = new WeakHashMap<>();
+
+    /**
+     * 选择宿主时复用的区域与位置
+     */
+    private static final Rect sBounds = new Rect();
+
+    private static final Rect sHostRect = new Rect();
+
+    private static final int[] sHostLocation = new int[2];
+
+    /**
+     * 实例保存在以宿主为键的弱引用表中，不能强引用宿主
+     */
+    private final WeakReference<View> mHost;
+
+    /**
+     * 宿主视图在屏幕上的位置，动画区域使用屏幕坐标，每帧重新获取，宿主滚动或移动时动画位置不变
+     */
+    private final int[] mLocation = new int[2];
+
+    /**
+     * 正在绘制的消失动画
+     */
+    private final ArrayList<DisappearAnimator> mDisappearAnimators = new ArrayList<>();
+
+    /**
+     * 正在播放的动画集合数量，全部结束时才从overlay中移除
+     */
+    private int mRunningSetCount;
+
+    private DisappearOverlay(@NonNull View host) {
+        mHost = new WeakReference<>(host);
+    }
+
+    /**
+     * 从视图的父视图中选择可以容纳所有动画区域的宿主，并由其绘制动画集合。
+     * 视图本身在动画期间不绘制自己，其overlay也不会被绘制，所以不能作为宿主
+     *
+     * @param view                 播放动画的视图
+     * @param disappearAnimatorSet 未开始的动画集合
+     * @return true 已交给父视图的overlay绘制，false 动画区域超出范围或系统版本不支持
+     */
+    static boolean host(@NonNull View view, @NonNull DisappearAnimatorSet disappearAnimatorSet) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M
+                && disappearAnimatorSet.hasPlaceholders()) {
+            //Android 6.0以下硬件加速的画布不支持绘制Picture，占位图只能在遮罩中绘制
+            return false;
+        }
+        Rect bounds = sBounds;
+        bounds.setEmpty();
+        for (DisappearAnimator disappearAnimator : disappearAnimatorSet.getChildAnimators()) {
+            disappearAnimator.unionDestinationBounds(bounds);
+        }
+        if (bounds.isEmpty()) {
+            return false;
+        }
+        View host = findHost(view, bounds);
+        if (host == null) {
+            return false;
+        }
+        DisappearOverlay overlay = sOverlays.get(host);
+        if (overlay == null) {
+            overlay = new DisappearOverlay(host);
+            sOverlays.put(host, overlay);
+        }
+        for (DisappearAnimator disappearAnimator : disappearAnimatorSet.getChildAnimators()) {
+            disappearAnimator.setCallback(overlay);
+        }
+        disappearAnimatorSet.addListener(overlay);
+        return true;
+    }
+
+    @Nullable
+    private static View findHost(@NonNull View view, @NonNull Rect bounds) {
+        int[] location = sHostLocation;
+        Rect hostRect = sHostRect;
+        View host = view.getParent() instanceof View ? (View) view.getParent() : null;
+        for (int i = 0; i < 2 && host != null; i++) {
+            if (host.getWindowToken() == null) {
+                return null;
+            }
+            host.getLocationOnScreen(location);
+            hostRect.set(location[0], location[1], location[0] + host.getWidth(),
+                    location[1] + host.getHeight());
+            if (hostRect.contains(bounds)) {
+                return host;
+            }
+            host = host.getParent() instanceof View ? (View) host.getParent() : null;
+        }
+        return null;
+    }
+
+    @Override
+    public void invalidate(DisappearAnimator animator) {
+        if (!mDisappearAnimators.contains(animator)) {
+            mDisappearAnimators.add(animator);
+        }
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        View host = mHost.get();
+        if (host == null) {
+            return;
+        }
+        host.getLocationOnScreen(mLocation);
+        int saveCount = canvas.save();
+        canvas.translate(-mLocation[0], -mLocation[1]);
+        for (int i = mDisappearAnimators.size() - 1; i >= 0; i--) {
+            DisappearAnimator disappearAnimator = mDisappearAnimators.get(i);
+            if (disappearAnimator.isRunning()) {
+                disappearAnimator.drawFrame(canvas);
+            } else {
+                mDisappearAnimators.remove(i);
+            }
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        View host = mHost.get();
+        if (mRunningSetCount++ > 0 || host == null) {
+            return;
+        }
+        setBounds(0, 0, host.getWidth(), host.getHeight());
+        host.getOverlay().add(this);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (mRunningSetCount == 0 || --mRunningSetCount > 0) {
+            return;
+        }
+        mDisappearAnimators.clear();
+        View host = mHost.get();
+        if (host != null) {
+            host.getOverlay().remove(this);
+        }
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+    }
+
+    @Override
+    public void onAnimationRepeat(Animator animation) {
+    }
+}
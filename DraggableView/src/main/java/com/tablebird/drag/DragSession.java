@@ -0,0 +1,204 @@
+package com.tablebird.drag;
+
+import android.animation.Animator;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+
+import com.tablebird.drag.animation.DisappearAnimatorSet;
+import com.tablebird.drag.element.BezierElement;
+import com.tablebird.drag.element.TargetElement;
+
+/**
+ * 一次拖动，按手指区分，多个拖动共享同一个{@link DraggableCover}并在同一次绘制中完成
+ * <p>
+ * 拖动结束后继续负责自身的减震或消失动画，动画结束时从遮罩中移除
+ */
+class DragSession implements Animator.AnimatorListener {
+
+    private final DraggableCover mCover;
+
+    private final int mPointerId;
+
+    /**
+     * 绘制拖动图标
+     */
+    private final TargetElement mTargetElement;
+
+    /**
+     * 绘制贝塞尔曲线图形
+     */
+    private final BezierElement mBezierElement;
+
+    /**
+     * 是否绘制内容
+     */
+    private boolean mIsDraw;
+
+    /**
+     * 是否绘制贝塞尔曲线
+     */
+    private boolean mIsDrawBezier;
+
+    private boolean mEnded;
+
+    /**
+     * 开始拖动时视图的区域，原位置的圆在该区域内
+     */
+    private final Rect mAnchorRect = new Rect();
+
+    /**
+     * 拖动可能绘制的范围，从原位置中心到区域边缘的距离
+     */
+    private int mReach;
+
+    DragSession(@NonNull DraggableCover cover, int pointerId) {
+        mCover = cover;
+        mPointerId = pointerId;
+        mTargetElement = new TargetElement(cover);
+        mBezierElement = new BezierElement(mTargetElement);
+    }
+
+    @NonNull
+    DraggableCover getCover() {
+        return mCover;
+    }
+
+    int getPointerId() {
+        return mPointerId;
+    }
+
+    @NonNull
+    TargetElement getTargetElement() {
+        return mTargetElement;
+    }
+
+    void start(@NonNull Picture picture, int draggableBezierColor, Rect targetRect) {
+        mBezierElement.setAnchorCenter(targetRect.centerX(), targetRect.centerY());
+        mBezierElement.setTargetHalf(picture.getHeight() / 2.0f, picture.getWidth() / 2.0f);
+        mBezierElement.setBezierColor(draggableBezierColor);
+
+        mIsDraw = true;
+        mIsDrawBezier = true;
+        mAnchorRect.set(targetRect);
+        mTargetElement.setTarget(picture, targetRect);
+    }
+
+    /**
+     * 设置拖动可能绘制的范围，在第一帧之前按该范围确定遮罩的大小
+     *
+     * @param maxDragDistance   最远拖动距离
+     * @param disappearHalfSize 消失动画大小的一半
+     */
+    void setReach(int maxDragDistance, float disappearHalfSize) {
+        float targetHalf = Math.max(mAnchorRect.width(), mAnchorRect.height()) / 2.0f;
+        mReach = (int) Math.ceil(maxDragDistance + Math.max(targetHalf, disappearHalfSize));
+        mCover.reserveBox(mReach, mAnchorRect.centerX(), mAnchorRect.centerY());
+    }
+
+    int getReach() {
+        return mReach;
+    }
+
+    /**
+     * 将当前绘制的区域合并到指定区域
+     *
+     * @param bounds 屏幕坐标
+     */
+    void unionBounds(Rect bounds) {
+        if (!mIsDraw) {
+            return;
+        }
+        Rect targetRect = mTargetElement.getRect();
+        if (targetRect != null) {
+            bounds.union(targetRect);
+        }
+        if (mIsDrawBezier) {
+            bounds.union(mAnchorRect);
+        }
+    }
+
+    /**
+     * 按渲染质量设置贝塞尔曲线的绘制方式
+     *
+     * @param quality 渲染质量
+     */
+    void setQuality(@NonNull DraggableManager.RenderQuality quality) {
+        mBezierElement.setAntiAlias(
+                quality.compareTo(DraggableManager.RenderQuality.NO_ANTI_ALIAS) < 0);
+        mBezierElement.setSimplified(
+                quality.compareTo(DraggableManager.RenderQuality.SIMPLE_NECK) >= 0);
+    }
+
+    void update(Rect targetRect, float anchorRadius, boolean isDrawBezier) {
+        mIsDrawBezier = isDrawBezier;
+        mBezierElement.setAnchorRadius(anchorRadius);
+        mTargetElement.setRect(targetRect);
+    }
+
+    /**
+     * 结束拖动
+     *
+     * @param targetRect 拖动图标最后的位置
+     * @param canDraw    是否继续绘制拖动图标，之后会播放动画时为true
+     */
+    void stop(Rect targetRect, boolean canDraw) {
+        if (!canDraw) {
+            end();
+            return;
+        }
+        mIsDraw = true;
+        mIsDrawBezier = false;
+        mTargetElement.setRect(targetRect);
+    }
+
+    void draw(Canvas canvas) {
+        if (mIsDraw) {
+            if (mIsDrawBezier) {
+                mBezierElement.draw(canvas);
+            }
+            mTargetElement.draw(canvas);
+        }
+    }
+
+    /**
+     * 释放快照并从遮罩中移除
+     */
+    void end() {
+        if (mEnded) {
+            return;
+        }
+        mEnded = true;
+        mIsDraw = false;
+        Picture picture = mTargetElement.getPicture();
+        mTargetElement.clean();
+        if (picture != null) {
+            DraggableManager.getInstance().releasePicture(picture);
+        }
+        mBezierElement.clean();
+        mCover.endSession(this);
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        //消失动画开始后由动画绘制，不再绘制拖动图标
+        mIsDraw = !(animation instanceof DisappearAnimatorSet);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        end();
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        mIsDraw = false;
+    }
+
+    @Override
+    public void onAnimationRepeat(Animator animation) {
+        mIsDraw = true;
+    }
+}
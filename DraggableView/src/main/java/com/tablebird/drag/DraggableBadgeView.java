@@ -0,0 +1,315 @@
+package com.tablebird.drag;
+
+import android.animation.Animator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.tablebird.drag.element.BadgeDrawable;
+
+/**
+ * 只显示计数的拖拽视图，计数由{@link BadgeDrawable}绘制，不经过TextView的文本测量与布局
+ * <p>
+ * 视图按所有计数文本中最宽的文本测量，计数变化只重绘，不会调用{@link #requestLayout()}，
+ * 拖拽、跟随与消失动画由{@link DraggableHelper}实现，与{@link DraggableView}一致，
+ * 其他拖拽参数通过{@link #getDraggableHelper()}设置
+ */
+public class DraggableBadgeView extends View {
+
+    public interface OnDragListener {
+        /**
+         * 拖拽结束销毁监听
+         *
+         * @param draggableBadgeView this
+         */
+        void onDragComplete(DraggableBadgeView draggableBadgeView);
+
+        /**
+         * 销毁动画播放结束监听
+         *
+         * @param draggableBadgeView this
+         */
+        void onDisappearComplete(DraggableBadgeView draggableBadgeView);
+    }
+
+    /**
+     * 读取的文本属性，按属性ID升序排列
+     */
+    private static final int[] TEXT_ATTRS = {android.R.attr.textSize, android.R.attr.textColor};
+
+    private static final int DEFAULT_TEXT_SIZE_SP = 12;
+
+    private final DraggableHelper mHelper;
+
+    private final BadgeDrawable mBadgeDrawable;
+
+    /**
+     * 拖拽监听
+     */
+    private OnDragListener mOnDragListener;
+
+    public DraggableBadgeView(Context context) {
+        this(context, null);
+    }
+
+    public DraggableBadgeView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, R.attr.DraggableViewStyle);
+    }
+
+    public DraggableBadgeView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, TEXT_ATTRS, defStyleAttr, 0);
+        float textSize = typedArray.getDimension(0, TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_SP, DEFAULT_TEXT_SIZE_SP,
+                getResources().getDisplayMetrics()));
+        int textColor = typedArray.getColor(1, Color.WHITE);
+        typedArray.recycle();
+
+        mHelper = new DraggableHelper(this, attrs, defStyleAttr, new DraggableHelper.Callback() {
+            @Override
+            public boolean onSuperTouchEvent(MotionEvent event) {
+                return DraggableBadgeView.super.onTouchEvent(event);
+            }
+
+            @Override
+            public void onDragComplete() {
+                if (mOnDragListener != null) {
+                    mOnDragListener.onDragComplete(DraggableBadgeView.this);
+                }
+            }
+
+            @Override
+            public void onDisappearComplete() {
+                if (mOnDragListener != null) {
+                    mOnDragListener.onDisappearComplete(DraggableBadgeView.this);
+                }
+            }
+
+            @Override
+            public void onTotalCountChanged(int totalCount) {
+                mBadgeDrawable.setCount(totalCount);
+            }
+        });
+        mBadgeDrawable = new BadgeDrawable(textSize, textColor);
+        mBadgeDrawable.setCallback(this);
+        mBadgeDrawable.setCount(mHelper.getTotalCount());
+
+        Drawable drawable = getBackground();
+        if (drawable == null) {
+            setBackgroundResource(R.drawable.def_draggable_view_bg);
+        }
+    }
+
+    /**
+     * 获取拖动、跟随消失与计数的实现
+     *
+     * @return 拖拽实现
+     */
+    @NonNull
+    public DraggableHelper getDraggableHelper() {
+        return mHelper;
+    }
+
+    @NonNull
+    public BadgeDrawable getBadgeDrawable() {
+        return mBadgeDrawable;
+    }
+
+    /**
+     * 设置计数文本大小，会重新布局
+     *
+     * @param textSize 文本大小，单位px
+     */
+    public void setTextSize(float textSize) {
+        if (mBadgeDrawable.getTextSize() == textSize) {
+            return;
+        }
+        mBadgeDrawable.setTextSize(textSize);
+        requestLayout();
+    }
+
+    /**
+     * 设置计数文本颜色
+     *
+     * @param textColor 文本颜色
+     */
+    public void setTextColor(@ColorInt int textColor) {
+        mBadgeDrawable.setTextColor(textColor);
+    }
+
+    /**
+     * 获取拖拽监听
+     *
+     * @return 拖拽监听
+     */
+    public OnDragListener getOnDragCompeteListener() {
+        return mOnDragListener;
+    }
+
+    /**
+     * 设置拖拽监听
+     *
+     * @param onDragListener 拖拽监听
+     */
+    public void setOnDragCompeteListener(OnDragListener onDragListener) {
+        mOnDragListener = onDragListener;
+    }
+
+    /**
+     * 获取视图标记
+     *
+     * @return 视图标记
+     */
+    public String getMark() {
+        return mHelper.getMark();
+    }
+
+    /**
+     * 设置视图标记
+     *
+     * @param mark 视图标记
+     */
+    public void setMark(String mark) {
+        mHelper.setMark(mark);
+    }
+
+    /**
+     * 获取领导视图标记
+     *
+     * @return 领导视图标记
+     */
+    public String getLeaderMark() {
+        return mHelper.getLeaderMark();
+    }
+
+    /**
+     * 设置领导标记
+     *
+     * @param leaderMark 领导标记
+     */
+    public void setLeaderMark(String leaderMark) {
+        mHelper.setLeaderMark(leaderMark);
+    }
+
+    /**
+     * 获取自身计数
+     *
+     * @return 自身计数
+     */
+    public int getCount() {
+        return mHelper.getCount();
+    }
+
+    /**
+     * 设置自身计数，计数变化沿领导链向上传递，在下一帧重绘
+     *
+     * @param count 自身计数，非负整数
+     */
+    public void setCount(int count) {
+        mHelper.setCount(count);
+    }
+
+    /**
+     * 获取自身与所有从属视图的计数之和
+     *
+     * @return 计数之和
+     */
+    public int getTotalCount() {
+        return mHelper.getTotalCount();
+    }
+
+    /**
+     * 获取销毁排序字段
+     *
+     * @return 销毁排序字段
+     */
+    public int getSort() {
+        return mHelper.getSort();
+    }
+
+    /**
+     * 设置销毁排序字段，尾随消失时有效
+     *
+     * @param sort 销毁排序字段
+     */
+    public void setSort(int sort) {
+        mHelper.setSort(sort);
+    }
+
+    /**
+     * 播放消失动画
+     *
+     * @param listener 动画监听
+     * @return true 开始播放，false 播放失败
+     */
+    public boolean playDisappearAnimation(@Nullable Animator.AnimatorListener listener) {
+        return mHelper.playDisappearAnimation(listener);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int height = mBadgeDrawable.getIntrinsicHeight() + getPaddingTop() + getPaddingBottom();
+        int width = mBadgeDrawable.getIntrinsicWidth() + getPaddingLeft() + getPaddingRight();
+        width = Math.max(width, height);
+        width = Math.max(width, getSuggestedMinimumWidth());
+        height = Math.max(height, getSuggestedMinimumHeight());
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        mBadgeDrawable.setBounds(getPaddingLeft(), getPaddingTop(),
+                right - left - getPaddingRight(), bottom - top - getPaddingBottom());
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        if (mHelper.isDrawSelf()) {
+            super.draw(canvas);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        mBadgeDrawable.draw(canvas);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mHelper.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mHelper.onDetachedFromWindow();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mHelper.onSizeChanged(w, h, oldw, oldh);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return mHelper.onTouchEvent(event);
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mBadgeDrawable || super.verifyDrawable(who);
+    }
+}
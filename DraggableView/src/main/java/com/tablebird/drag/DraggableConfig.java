@@ -0,0 +1,233 @@
+package com.tablebird.drag;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
+/**
+ * 解析后的{@link DraggableView}样式，创建后不可修改
+ * <p>
+ * 布局中没有单独设置拖拽属性的视图按(主题, defStyleAttr, 样式资源)共享同一份配置，
+ * 避免每个实例重复解析样式与消失动画帧数组。视图只复制其中的值，单独修改时不会影响其他视图
+ * <p>
+ * 共享配置的缓存是线程安全的，可以在AsyncLayoutInflater等后台线程中创建视图
+ */
+public final class DraggableConfig {
+
+    private static final WeakHashMap<Resources.Theme, LongSparseArray<DraggableConfig>> mConfigs =
+            new WeakHashMap<>();
+
+    final boolean dragEnable;
+    final int maxDragDistance;
+    final int canRecoverDistance;
+    final int minAnchorRadius;
+    final int maxAnchorRadius;
+    /**
+     * 消失动画帧，多个视图共享，不能修改
+     */
+    final int[] disappearAnimationArray;
+    final int disappearAnimationArrayId;
+    final int disappearAnimationDuration;
+    final float disappearAnimationHalfSize;
+    final int disappearAnimationTint;
+    final DraggableView.DisappearMode disappearMode;
+    final int disappearParticleCount;
+    final int draggableBezierColor;
+    final int dampingAnimationDuration;
+    final int dampingAnimationCount;
+    final boolean followDisappearEnable;
+    final DraggableView.FollowMode followMode;
+    final boolean lowLatencyEnable;
+
+    private DraggableConfig(@NonNull Context context, @NonNull TypedArray typedArray) {
+        boolean dragEnable = false;
+        int maxDragDistance = 0;
+        int canRecoverDistance = 0;
+        int minAnchorRadius = 0;
+        int maxAnchorRadius = 0;
+        int[] disappearAnimationArray = null;
+        int disappearAnimationArrayId = 0;
+        int disappearAnimationDuration = 0;
+        float disappearAnimationHalfSize = 0;
+        int disappearAnimationTint = 0;
+        DraggableView.DisappearMode disappearMode = DraggableView.DisappearMode.FRAMES;
+        int disappearParticleCount = 0;
+        int draggableBezierColor = 0;
+        int dampingAnimationDuration = 0;
+        int dampingAnimationCount = 0;
+        boolean followDisappearEnable = false;
+        DraggableView.FollowMode followMode = DraggableView.FollowMode.SIMULTANEOUSLY;
+        boolean lowLatencyEnable = false;
+
+        int count = typedArray.getIndexCount();
+        for (int i = 0; i < count; i++) {
+            int attr = typedArray.getIndex(i);
+            if (attr == R.styleable.DraggableView_draggableEnable) {
+                dragEnable = typedArray.getBoolean(attr, dragEnable);
+            } else if (attr == R.styleable.DraggableView_maxDragDistance) {
+                maxDragDistance = typedArray.getDimensionPixelSize(attr, maxDragDistance);
+            } else if (attr == R.styleable.DraggableView_canRecoverDistance) {
+                canRecoverDistance = typedArray.getDimensionPixelSize(attr, canRecoverDistance);
+            } else if (attr == R.styleable.DraggableView_minAnchorRadius) {
+                minAnchorRadius = typedArray.getDimensionPixelSize(attr, minAnchorRadius);
+                if (minAnchorRadius <= 0) {
+                    throw new IllegalArgumentException("minAnchorRadius should be greater than " +
+                            "zero");
+                }
+            } else if (attr == R.styleable.DraggableView_maxAnchorRadius) {
+                maxAnchorRadius = typedArray.getDimensionPixelSize(attr, maxAnchorRadius);
+                if (maxAnchorRadius <= 0) {
+                    throw new IllegalArgumentException("maxAnchorRadius should be greater than " +
+                            "zero");
+                }
+            } else if (attr == R.styleable.DraggableView_disappearAnimationArray) {
+                disappearAnimationArrayId = typedArray.getResourceId(attr, -1);
+                TypedArray explosionTypeArray =
+                        context.getResources().obtainTypedArray(disappearAnimationArrayId);
+                disappearAnimationArray = new int[explosionTypeArray.length()];
+                for (int j = 0; j < disappearAnimationArray.length; j++) {
+                    disappearAnimationArray[j] = explosionTypeArray.getResourceId(j, 0);
+                }
+                explosionTypeArray.recycle();
+            } else if (attr == R.styleable.DraggableView_disappearAnimationDuration) {
+                disappearAnimationDuration = typedArray.getInt(attr, disappearAnimationDuration);
+            } else if (attr == R.styleable.DraggableView_disappearAnimationSize) {
+                disappearAnimationHalfSize = typedArray.getDimensionPixelSize(attr, -1) / 2.0f;
+            } else if (attr == R.styleable.DraggableView_disappearAnimationTint) {
+                disappearAnimationTint = typedArray.getColor(attr, disappearAnimationTint);
+            } else if (attr == R.styleable.DraggableView_disappearAnimationMode) {
+                int index = typedArray.getInt(attr, disappearMode.ordinal());
+                disappearMode = DraggableView.DisappearMode.values()[index];
+            } else if (attr == R.styleable.DraggableView_disappearParticleCount) {
+                disappearParticleCount = typedArray.getInt(attr, disappearParticleCount);
+            } else if (attr == R.styleable.DraggableView_draggableBezierColor) {
+                draggableBezierColor = typedArray.getColor(attr, draggableBezierColor);
+            } else if (attr == R.styleable.DraggableView_dampingAnimationDuration) {
+                dampingAnimationDuration = typedArray.getInt(attr, dampingAnimationDuration);
+            } else if (attr == R.styleable.DraggableView_dampingAnimationCount) {
+                dampingAnimationCount = typedArray.getInt(attr, dampingAnimationCount);
+            } else if (attr == R.styleable.DraggableView_followDisappearEnable) {
+                followDisappearEnable = typedArray.getBoolean(attr, followDisappearEnable);
+            } else if (attr == R.styleable.DraggableView_followDisappearMode) {
+                int index = typedArray.getInt(attr, followMode.ordinal());
+                followMode = DraggableView.FollowMode.values()[index];
+            } else if (attr == R.styleable.DraggableView_lowLatencyEnable) {
+                lowLatencyEnable = typedArray.getBoolean(attr, lowLatencyEnable);
+            }
+        }
+
+        this.dragEnable = dragEnable;
+        this.maxDragDistance = maxDragDistance;
+        this.canRecoverDistance = canRecoverDistance;
+        this.minAnchorRadius = minAnchorRadius;
+        this.maxAnchorRadius = maxAnchorRadius;
+        this.disappearAnimationArray = disappearAnimationArray;
+        this.disappearAnimationArrayId = disappearAnimationArrayId;
+        this.disappearAnimationDuration = disappearAnimationDuration;
+        this.disappearAnimationHalfSize = disappearAnimationHalfSize;
+        this.disappearAnimationTint = disappearAnimationTint;
+        this.disappearMode = disappearMode;
+        this.disappearParticleCount = disappearParticleCount;
+        this.draggableBezierColor = draggableBezierColor;
+        this.dampingAnimationDuration = dampingAnimationDuration;
+        this.dampingAnimationCount = dampingAnimationCount;
+        this.followDisappearEnable = followDisappearEnable;
+        this.followMode = followMode;
+        this.lowLatencyEnable = lowLatencyEnable;
+    }
+
+    /**
+     * 获取视图的样式配置，布局中没有设置拖拽属性时返回共享的配置
+     *
+     * @param context      上下文
+     * @param attrs        布局属性
+     * @param defStyleAttr 默认样式属性
+     * @return 样式配置
+     */
+    @NonNull
+    public static DraggableConfig obtain(@NonNull Context context, @Nullable AttributeSet attrs,
+                                         int defStyleAttr) {
+        if (hasDraggableAttributes(attrs)) {
+            return parse(context, attrs, defStyleAttr);
+        }
+        Resources.Theme theme = context.getTheme();
+        int styleRes = attrs != null ? attrs.getStyleAttribute() : 0;
+        if (theme == null) {
+            return parse(context, attrs, defStyleAttr);
+        }
+        long key = ((long) defStyleAttr << 32) | (styleRes & 0xFFFFFFFFL);
+        DraggableConfig config = getCachedConfig(theme, key);
+        if (config != null) {
+            return config;
+        }
+        //解析不持有锁，多个线程同时解析时只保留第一个结果
+        config = parse(context, attrs, defStyleAttr);
+        synchronized (mConfigs) {
+            LongSparseArray<DraggableConfig> configs = mConfigs.get(theme);
+            if (configs == null) {
+                configs = new LongSparseArray<>();
+                mConfigs.put(theme, configs);
+            }
+            DraggableConfig cachedConfig = configs.get(key);
+            if (cachedConfig != null) {
+                return cachedConfig;
+            }
+            configs.put(key, config);
+        }
+        return config;
+    }
+
+    @Nullable
+    private static DraggableConfig getCachedConfig(@NonNull Resources.Theme theme, long key) {
+        synchronized (mConfigs) {
+            LongSparseArray<DraggableConfig> configs = mConfigs.get(theme);
+            return configs != null ? configs.get(key) : null;
+        }
+    }
+
+    @NonNull
+    private static DraggableConfig parse(@NonNull Context context, @Nullable AttributeSet attrs,
+                                         int defStyleAttr) {
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.DraggableView,
+                defStyleAttr, R.style.DefaultDraggableViewStyle);
+        try {
+            return new DraggableConfig(context, typedArray);
+        } finally {
+            typedArray.recycle();
+        }
+    }
+
+    /**
+     * 布局中是否直接设置了拖拽属性，只比较属性ID，不解析属性值
+     */
+    private static boolean hasDraggableAttributes(@Nullable AttributeSet attrs) {
+        if (attrs == null) {
+            return false;
+        }
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            int nameResource = attrs.getAttributeNameResource(i);
+            if (nameResource != 0
+                    && Arrays.binarySearch(R.styleable.DraggableView, nameResource) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清除共享的配置，例如运行时修改了主题
+     */
+    public static void clean() {
+        synchronized (mConfigs) {
+            mConfigs.clear();
+        }
+    }
+}
@@ -6,25 +6,28 @@ import android.app.Activity;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Picture;
 import android.graphics.PixelFormat;
 import android.graphics.PorterDuff;
 import android.graphics.Rect;
+import android.os.IBinder;
+import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.WindowManager;
 import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
 
 import com.tablebird.drag.animation.DampingAnimator;
 import com.tablebird.drag.animation.DisappearAnimator;
-import com.tablebird.drag.element.BezierElement;
 import com.tablebird.drag.element.CoverElement;
-import com.tablebird.drag.element.TargetElement;
-import com.tablebird.drag.ref.WeakDrawableCache;
+
+import java.util.ArrayList;
 
 /**
  * @author tablebird
@@ -33,12 +36,12 @@ import com.tablebird.drag.ref.WeakDrawableCache;
 
 @SuppressLint("ViewConstructor")
 class DraggableCover extends SurfaceView implements SurfaceHolder.Callback,
-        CoverElement.Callback, Animator.AnimatorListener {
+        CoverElement.Callback, DisappearAnimator.Callback, Animator.AnimatorListener {
 
     /**
-     * 是否绘制内容
+     * 限定区域时surface大小的对齐单位，减少大小变化的次数
      */
-    private boolean mIsDraw = false;
+    private static final int BOX_ALIGN = 64;
 
     /**
      * 是否可以绘制
@@ -46,25 +49,109 @@ class DraggableCover extends SurfaceView implements SurfaceHolder.Callback,
     private boolean mCanDraw = false;
 
     /**
-     * 是否绘制贝塞尔曲线
+     * 正在进行的拖动，按开始顺序绘制
+     */
+    private final ArrayList<DragSession> mSessions = new ArrayList<>();
+
+    /**
+     * 正在播放的消失动画，与拖动在同一次绘制中完成
+     */
+    private final ArrayList<DisappearAnimator> mDisappearAnimators = new ArrayList<>();
+
+    /**
+     * 由该遮罩绘制、正在播放的动画，消失动画为其所在的动画集合
+     */
+    private final ArrayList<Animator> mPlayingAnimators = new ArrayList<>();
+
+    /**
+     * 是否已安排在下一帧绘制
      */
-    private boolean mIsDrawBezier;
+    private boolean mDrawPending;
+
+    private final Runnable mDrawRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDrawPending = false;
+            drawDrop();
+        }
+    };
 
     /**
-     * 绘制拖动图标
+     * 空闲超时后从窗口中移除遮罩，下次拖动时重新创建
      */
-    private TargetElement mTargetElement;
+    private final Runnable mIdleReleaseRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (isIdle() && !mReleased) {
+                DraggableManager.getInstance().releaseIdleCover(DraggableCover.this);
+            }
+        }
+    };
 
     /**
-     * 绘制贝塞尔曲线图形
+     * 所在窗口已移除，遮罩不能再使用
      */
-    private BezierElement mBezierElement;
+    private boolean mReleased;
 
     /**
      * surface view起始位置
      */
     private int[] mLocation = new int[2];
 
+    /**
+     * 以子窗口承载时使用的窗口管理
+     */
+    private WindowManager mWindowManager;
+
+    /**
+     * 以子窗口承载时的窗口参数，限定区域时用于移动窗口
+     */
+    private WindowManager.LayoutParams mPanelLayoutParams;
+
+    /**
+     * 是否只使用拖动所需的区域，而不是整个窗口
+     */
+    private final boolean mBounded;
+
+    /**
+     * 渲染比例，小于1时surface使用较低的分辨率
+     */
+    private final float mRenderScale;
+
+    /**
+     * surface分辨率与视图大小的实际比例
+     */
+    private float mScaleX = 1;
+
+    private float mScaleY = 1;
+
+    /**
+     * 已应用到拖动与动画的渲染质量
+     */
+    private DraggableManager.RenderQuality mQuality;
+
+    /**
+     * 限定区域时surface在屏幕上的区域
+     */
+    private final Rect mBox = new Rect();
+
+    /**
+     * 限定区域时偏移为0的位置在屏幕上的坐标
+     */
+    private final int[] mOrigin = new int[2];
+
+    /**
+     * 当前帧需要绘制的区域，屏幕坐标
+     */
+    private final Rect mFrameBounds = new Rect();
+
+    /**
+     * 创建并添加到视图所在的窗口，之后该窗口中的所有拖动都复用该遮罩，
+     * 空闲时先只清空画面，避免连续拖动时重新创建surface，空闲超过
+     * {@link DraggableManager#getCoverIdleTimeout()}后才从窗口中移除
+     *
+     * @param view 窗口中的视图
+     */
     public DraggableCover(View view) {
         super(view.getContext());
 
@@ -76,151 +163,474 @@ class DraggableCover extends SurfaceView implements SurfaceHolder.Callback,
         setClickable(false);
         setFocusableInTouchMode(false);
         setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        mBounded = DraggableManager.getInstance().isBoundedCover();
+        mRenderScale = DraggableManager.getInstance().resolveCoverRenderScale(getContext());
         attachedToWindow(view);
-        mTargetElement = new TargetElement(this);
-        mBezierElement = new BezierElement(mTargetElement);
     }
 
-    public void attachedToWindow(View view) {
-        if (getParent() != null) {
-            ((ViewGroup)getParent()).removeView(this);
+    private void attachedToWindow(View view) {
+        if (DraggableManager.getInstance().getCoverMode() == DraggableManager.CoverMode.PANEL_WINDOW
+                && attachedToPanelWindow(view)) {
+            return;
         }
+        int size = mBounded ? 1 : FrameLayout.LayoutParams.MATCH_PARENT;
         View rootView = view.getRootView();
         if (rootView instanceof ViewGroup) {
-            ((ViewGroup) rootView).addView(this, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+            ((ViewGroup) rootView).addView(this, new FrameLayout.LayoutParams(size, size,
+                    Gravity.START | Gravity.TOP));
         } else {
             Context context = view.getContext();
             if (context instanceof Activity) {
                 ViewGroup viewGroup = ((ViewGroup) ((Activity) context).getWindow().getDecorView());
-                viewGroup.addView(this, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+                viewGroup.addView(this, new FrameLayout.LayoutParams(size, size,
+                        Gravity.START | Gravity.TOP));
             }
         }
     }
 
 
-    void start(@NonNull Picture picture, int draggableBezierColor, Rect targetRect) {
-        mBezierElement.setAnchorCenter(targetRect.centerX(), targetRect.centerY());
-        mBezierElement.setTargetHalf(picture.getHeight() / 2.0f, picture.getWidth() / 2.0f);
-        mBezierElement.setBezierColor(draggableBezierColor);
+    /**
+     * 添加到依附于视图所在窗口的子窗口，不触发应用视图的布局
+     *
+     * @return true 添加成功
+     */
+    private boolean attachedToPanelWindow(View view) {
+        IBinder windowToken = view.getWindowToken();
+        WindowManager windowManager =
+                (WindowManager) view.getContext().getSystemService(Context.WINDOW_SERVICE);
+        if (windowToken == null || windowManager == null) {
+            return false;
+        }
+        int size = mBounded ? 1 : WindowManager.LayoutParams.MATCH_PARENT;
+        WindowManager.LayoutParams layoutParams = new WindowManager.LayoutParams(size, size,
+                WindowManager.LayoutParams.TYPE_APPLICATION_PANEL,
+                WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                        | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE
+                        | WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN
+                        | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS,
+                PixelFormat.TRANSLUCENT);
+        layoutParams.gravity = Gravity.START | Gravity.TOP;
+        layoutParams.token = windowToken;
+        try {
+            windowManager.addView(this, layoutParams);
+        } catch (WindowManager.BadTokenException e) {
+            return false;
+        }
+        mWindowManager = windowManager;
+        mPanelLayoutParams = layoutParams;
+        return true;
+    }
 
-        mIsDraw = true;
-        mTargetElement.setTarget(picture, targetRect);
-        mIsDrawBezier = true;
+    private void detachedFromWindow() {
+        if (mWindowManager != null) {
+            WindowManager windowManager = mWindowManager;
+            mWindowManager = null;
+            mPanelLayoutParams = null;
+            if (getParent() != null) {
+                try {
+                    windowManager.removeViewImmediate(this);
+                } catch (IllegalArgumentException e) {
+                    //所依附的窗口已先移除
+                }
+            }
+        } else if (getParent() instanceof ViewGroup) {
+            ((ViewGroup) getParent()).removeView(this);
+        }
     }
 
-    void update(Rect targetRect, float anchorRadius, boolean isDrawBezier) {
-        mIsDrawBezier = isDrawBezier;
-        mBezierElement.setAnchorRadius(anchorRadius);
-        mTargetElement.setRect(targetRect);
+    /**
+     * 开始一次拖动
+     *
+     * @param pointerId 手指ID
+     * @return 拖动，该手指已在拖动时为空
+     */
+    @Nullable
+    DragSession newSession(int pointerId) {
+        if (mReleased) {
+            return null;
+        }
+        for (DragSession session : mSessions) {
+            if (session.getPointerId() == pointerId) {
+                return null;
+            }
+        }
+        removeCallbacks(mIdleReleaseRunnable);
+        DragSession session = new DragSession(this, pointerId);
+        session.setQuality(getQuality());
+        mSessions.add(session);
+        return session;
     }
 
     /**
-     * 结束
+     * 拖动及其动画结束
      */
-    void stop(Rect targetRect, boolean canDraw) {
-        if (canDraw) {
-            mTargetElement.setRect(targetRect);
-        } else {
-            mTargetElement.clean();
+    void endSession(DragSession session) {
+        mSessions.remove(session);
+        invalidateCover();
+        checkIdle();
+    }
+
+    /**
+     * 没有拖动与动画时开始空闲计时，动画帧缓存保留，只在内存不足或窗口移除时清除
+     */
+    private void checkIdle() {
+        if (!isIdle()) {
+            return;
+        }
+        mDisappearAnimators.clear();
+        removeCallbacks(mIdleReleaseRunnable);
+        long idleTimeout = DraggableManager.getInstance().getCoverIdleTimeout();
+        if (idleTimeout > 0 && !mReleased) {
+            postDelayed(mIdleReleaseRunnable, idleTimeout);
         }
-        clean(canDraw);
     }
 
-    private void clean(boolean canDraw) {
-        if (!canDraw) {
-            mTargetElement.clean();
-            mBezierElement.clean();
-            WeakDrawableCache.clean();
-            if (getParent() != null) {
-                ViewGroup viewGroup = (ViewGroup) getParent();
-                viewGroup.removeView(this);
-            }
+    /**
+     * @return 是否没有拖动与正在播放的动画
+     */
+    boolean isIdle() {
+        return mSessions.isEmpty() && mPlayingAnimators.isEmpty();
+    }
+
+    boolean isReleased() {
+        return mReleased;
+    }
+
+    /**
+     * 立即结束所有正在播放的动画，结束回调照常分发，用于surface销毁或内存不足时
+     */
+    void finishAnimations() {
+        if (mPlayingAnimators.isEmpty()) {
             return;
         }
-        mIsDraw = true;
-        mIsDrawBezier = false;
-        drawDrop();
+        Animator[] animators = mPlayingAnimators.toArray(new Animator[0]);
+        for (Animator animator : animators) {
+            animator.end();
+        }
+        mPlayingAnimators.clear();
+    }
+
+    /**
+     * 所在窗口移除、内存不足或空闲超时时调用，结束动画并从窗口中移除遮罩
+     */
+    void release() {
+        finishAnimations();
+        mReleased = true;
+        mSessions.clear();
+        mDisappearAnimators.clear();
+        if (mDrawPending) {
+            mDrawPending = false;
+            removeCallbacks(mDrawRunnable);
+        }
+        removeCallbacks(mIdleReleaseRunnable);
+        mCanDraw = false;
+        detachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (mRenderScale >= 1 || w <= 0 || h <= 0) {
+            return;
+        }
+        //降低surface分辨率，绘制时整体缩放画布，元素坐标不需要单独换算
+        int width = Math.max(1, (int) Math.ceil(w * mRenderScale));
+        int height = Math.max(1, (int) Math.ceil(h * mRenderScale));
+        mScaleX = (float) width / w;
+        mScaleY = (float) height / h;
+        getHolder().setFixedSize(width, height);
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        return mIsDraw;
+        //不拦截触摸，其他手指可以同时拖动其他视图
+        return false;
     }
 
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
-        mIsDraw = false;
+        mCanDraw = true;
     }
 
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
-        mIsDraw = true;
-        mCanDraw = holder.isCreating();
+        //遮罩在窗口中保留，尺寸变化时重新计算位置
         calculationViewRectOnScreen();
         drawDrop();
     }
 
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
+        mCanDraw = false;
+        if (mDrawPending) {
+            mDrawPending = false;
+            removeCallbacks(mDrawRunnable);
+        }
+        //窗口不可见时动画已无法显示，直接结束，避免继续推进帧与解码
+        finishAnimations();
     }
 
     @Override
     public void invalidate(CoverElement coverElement) {
-        drawDrop();
+        invalidateCover();
+    }
+
+    @Override
+    public void invalidate(DisappearAnimator animator) {
+        if (!mDisappearAnimators.contains(animator)) {
+            mDisappearAnimators.add(animator);
+        }
+        invalidateCover();
+    }
+
+    /**
+     * 合并同一帧内所有拖动与动画的变化，只绘制一次
+     */
+    private void invalidateCover() {
+        if (!mCanDraw || mDrawPending) {
+            return;
+        }
+        mDrawPending = true;
+        ViewCompat.postOnAnimation(this, mDrawRunnable);
     }
 
     private void drawDrop() {
         if (!mCanDraw) {
             return;
         }
+        if (mBounded) {
+            updateBox();
+        }
+        applyQuality();
+        //lockCanvas会等待可用的缓冲区，等待时间也计入帧耗时
+        long startTime = System.nanoTime();
         Canvas canvas = getHolder().lockCanvas();
         if (canvas != null) {
-            canvas.translate(-mLocation[0], -mLocation[1]);
+            if (mRenderScale < 1) {
+                canvas.scale(mScaleX, mScaleY);
+            }
+            if (mBounded) {
+                canvas.translate(-mBox.left, -mBox.top);
+            } else {
+                canvas.translate(-mLocation[0], -mLocation[1]);
+            }
             canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
-            if (mIsDraw) {
-                if (mIsDrawBezier) {
-                    mBezierElement.draw(canvas);
+            for (int i = 0, size = mSessions.size(); i < size; i++) {
+                mSessions.get(i).draw(canvas);
+            }
+            for (int i = mDisappearAnimators.size() - 1; i >= 0; i--) {
+                DisappearAnimator disappearAnimator = mDisappearAnimators.get(i);
+                if (disappearAnimator.isRunning()) {
+                    disappearAnimator.drawFrame(canvas);
+                } else {
+                    mDisappearAnimators.remove(i);
                 }
-                mTargetElement.draw(canvas);
             }
             getHolder().unlockCanvasAndPost(canvas);
+            if (!mSessions.isEmpty() || !mDisappearAnimators.isEmpty()) {
+                DraggableManager.getInstance().getQualityGovernor()
+                        .onFrameRendered(System.nanoTime() - startTime);
+            }
         }
     }
 
+    @NonNull
+    private DraggableManager.RenderQuality getQuality() {
+        return DraggableManager.getInstance().getQualityGovernor().getQuality();
+    }
+
+    /**
+     * 渲染质量变化时应用到所有拖动与正在播放的消失动画
+     */
+    private void applyQuality() {
+        DraggableManager.RenderQuality quality = getQuality();
+        if (quality == mQuality) {
+            return;
+        }
+        mQuality = quality;
+        for (int i = 0, size = mSessions.size(); i < size; i++) {
+            mSessions.get(i).setQuality(quality);
+        }
+        for (int i = 0, size = mDisappearAnimators.size(); i < size; i++) {
+            applyQuality(mDisappearAnimators.get(i), quality);
+        }
+    }
+
+    private static void applyQuality(DisappearAnimator disappearAnimator,
+                                     DraggableManager.RenderQuality quality) {
+        disappearAnimator.setFrameStep(
+                quality.compareTo(DraggableManager.RenderQuality.HALF_FRAME_RATE) >= 0 ? 2 : 1);
+        disappearAnimator.setPlaceholderEnable(
+                quality.compareTo(DraggableManager.RenderQuality.NO_PLACEHOLDER) < 0);
+    }
+
     private void calculationViewRectOnScreen() {
         getLocationOnScreen(mLocation);
+        if (mBounded) {
+            //当前位置减去已应用的偏移
+            mOrigin[0] = mLocation[0] - (mBox.left - mOrigin[0]);
+            mOrigin[1] = mLocation[1] - (mBox.top - mOrigin[1]);
+            mBox.offsetTo(mLocation[0], mLocation[1]);
+        }
     }
 
-    DisappearAnimator newDisappearAnimator() {
-        DisappearAnimator disappearAnimator = new DisappearAnimator(getContext(), getHolder());
+    /**
+     * 拖动开始时按可能绘制的范围预留surface大小，在第一帧之前改变大小，
+     * 之后的拖动只移动位置
+     *
+     * @param reach   从原位置中心到绘制区域边缘的距离
+     * @param centerX 原位置中心，屏幕坐标
+     * @param centerY 原位置中心，屏幕坐标
+     */
+    void reserveBox(int reach, int centerX, int centerY) {
+        if (!mBounded || mReleased) {
+            return;
+        }
+        int size = roundUp(reach * 2);
+        if (size <= mBox.width() && size <= mBox.height()) {
+            return;
+        }
+        mBox.set(0, 0, Math.max(size, mBox.width()), Math.max(size, mBox.height()));
+        moveBox(centerX, centerY, true);
+    }
+
+    /**
+     * 按当前帧所有拖动与动画的区域调整surface的位置与大小，
+     * 大小只在不足时增大，之后的移动只改变位置，不重新分配缓冲区。
+     * 大小改变后surface尚未变化时继续在当前缓冲区中绘制，超出的部分被裁剪，不丢弃帧
+     */
+    private void updateBox() {
+        Rect frame = mFrameBounds;
+        frame.setEmpty();
+        int reach = 0;
+        for (int i = 0, size = mSessions.size(); i < size; i++) {
+            DragSession session = mSessions.get(i);
+            session.unionBounds(frame);
+            reach = Math.max(reach, session.getReach());
+        }
+        for (int i = 0, size = mDisappearAnimators.size(); i < size; i++) {
+            mDisappearAnimators.get(i).unionBounds(frame);
+        }
+        if (frame.isEmpty()) {
+            //只需要清空画面
+            return;
+        }
+        int width = Math.max(frame.width(), reach * 2);
+        int height = Math.max(frame.height(), reach * 2);
+        if (width > mBox.width() || height > mBox.height()) {
+            //通常已在拖动开始时预留，只有动画区域超出预留大小时才改变
+            mBox.set(0, 0, Math.max(roundUp(width), mBox.width()),
+                    Math.max(roundUp(height), mBox.height()));
+            moveBox(frame.centerX(), frame.centerY(), true);
+        } else if (!mBox.contains(frame)) {
+            moveBox(frame.centerX(), frame.centerY(), false);
+        }
+    }
+
+    private static int roundUp(int size) {
+        return (size + BOX_ALIGN - 1) / BOX_ALIGN * BOX_ALIGN;
+    }
+
+    /**
+     * 以指定位置为中心移动surface
+     *
+     * @param centerX 中心，屏幕坐标
+     * @param centerY 中心，屏幕坐标
+     * @param resize  大小是否发生变化
+     */
+    private void moveBox(int centerX, int centerY, boolean resize) {
+        if (mWindowManager == null && getParent() instanceof View) {
+            ((View) getParent()).getLocationOnScreen(mOrigin);
+        }
+        mBox.offsetTo(centerX - mBox.width() / 2, centerY - mBox.height() / 2);
+        int offsetX = mBox.left - mOrigin[0];
+        int offsetY = mBox.top - mOrigin[1];
+        if (mWindowManager != null && mPanelLayoutParams != null) {
+            mPanelLayoutParams.x = offsetX;
+            mPanelLayoutParams.y = offsetY;
+            if (resize) {
+                mPanelLayoutParams.width = mBox.width();
+                mPanelLayoutParams.height = mBox.height();
+            }
+            mWindowManager.updateViewLayout(this, mPanelLayoutParams);
+            return;
+        }
+        setTranslationX(offsetX);
+        setTranslationY(offsetY);
+        if (resize) {
+            ViewGroup.LayoutParams layoutParams = getLayoutParams();
+            if (layoutParams != null) {
+                //只重新布局遮罩自身，setLayoutParams会请求根视图重新布局
+                int width = mBox.width();
+                int height = mBox.height();
+                layoutParams.width = width;
+                layoutParams.height = height;
+                measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                        MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+                layout(getLeft(), getTop(), getLeft() + width, getTop() + height);
+            }
+        }
+    }
+
+    /**
+     * @param recycled 对象池中已重置的动画，为空时新建
+     * @param session  动画所属的拖动，动画结束时结束该拖动，为空时不属于任何拖动
+     */
+    DisappearAnimator newDisappearAnimator(@Nullable DisappearAnimator recycled,
+                                           @Nullable DragSession session) {
+        DisappearAnimator disappearAnimator = recycled;
+        if (disappearAnimator == null) {
+            disappearAnimator = new DisappearAnimator(getContext(), getHolder());
+        } else {
+            disappearAnimator.setSurface(getContext(), getHolder());
+        }
+        disappearAnimator.setCallback(this);
+        applyQuality(disappearAnimator, getQuality());
+        if (session != null) {
+            disappearAnimator.addListener(session);
+        }
         disappearAnimator.addListener(this);
         disappearAnimator.setTranslate(mLocation[0], mLocation[1]);
         return disappearAnimator;
     }
 
-    DampingAnimator newDampingAnimator() {
-        DampingAnimator dampingAnimator = new DampingAnimator(mTargetElement);
+    /**
+     * @param recycled 对象池中的动画，为空时新建
+     * @param session  动画所属的拖动
+     */
+    DampingAnimator newDampingAnimator(@Nullable DampingAnimator recycled,
+                                       @NonNull DragSession session) {
+        DampingAnimator dampingAnimator = recycled;
+        if (dampingAnimator == null) {
+            dampingAnimator = new DampingAnimator(session.getTargetElement());
+        } else {
+            dampingAnimator.reset(session.getTargetElement());
+        }
+        dampingAnimator.addListener(session);
         dampingAnimator.addListener(this);
         return dampingAnimator;
     }
 
     @Override
     public void onAnimationStart(Animator animation) {
-        mIsDraw = true;
+        removeCallbacks(mIdleReleaseRunnable);
+        if (!mPlayingAnimators.contains(animation)) {
+            mPlayingAnimators.add(animation);
+        }
     }
 
     @Override
     public void onAnimationEnd(Animator animation) {
-        clean(false);
+        mPlayingAnimators.remove(animation);
+        invalidateCover();
+        checkIdle();
     }
 
     @Override
     public void onAnimationCancel(Animator animation) {
-        mIsDraw = false;
     }
 
     @Override
     public void onAnimationRepeat(Animator animation) {
-        mIsDraw = true;
     }
 }
@@ -0,0 +1,1598 @@
+package com.tablebird.drag;
+
+import android.animation.Animator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.widget.ListView;
+import android.widget.ScrollView;
+
+import androidx.annotation.ArrayRes;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+
+import com.tablebird.drag.animation.DampingAnimator;
+import com.tablebird.drag.animation.DisappearAnimator;
+import com.tablebird.drag.animation.DisappearAnimatorSet;
+import com.tablebird.drag.ref.DraggableViewWeakReference;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 拖拽视图的拖动、跟随消失、计数与消失动画，由{@link DraggableView}与{@link DraggableBadgeView}共用
+ * <p>
+ * 宿主视图把触摸事件、附加与离开窗口、大小变化交给该对象，绘制前通过{@link #isDrawSelf()}判断是否绘制自身。
+ * 标记、领导关系与跟随消失都以该对象为单位，不同类型的拖拽视图可以互相跟随
+ */
+public final class DraggableHelper implements Animator.AnimatorListener,
+        Comparable<DraggableHelper> {
+
+    /**
+     * 宿主视图的回调
+     */
+    interface Callback {
+
+        /**
+         * 未开启拖动或不属于拖动的触摸事件交给宿主视图的父类处理
+         */
+        boolean onSuperTouchEvent(MotionEvent event);
+
+        /**
+         * 拖拽结束，即将销毁
+         */
+        void onDragComplete();
+
+        /**
+         * 拖拽销毁的动画播放结束
+         */
+        void onDisappearComplete();
+
+        /**
+         * 显示新的计数，同一帧内最多调用一次
+         *
+         * @param totalCount 自身计数与所有跟随者计数之和
+         */
+        void onTotalCountChanged(int totalCount);
+    }
+
+    /**
+     * 宿主视图
+     */
+    private final View mView;
+
+    private final Callback mCallback;
+
+    /**
+     * 是否启用拖动
+     */
+    private boolean mDragEnable;
+
+    /**
+     * 是否启用跟随消失模式
+     */
+    private boolean mFollowDisappearEnable;
+
+    /**
+     * 跟随消失模式
+     */
+    private DraggableView.FollowMode mFollowMode = DraggableView.FollowMode.SIMULTANEOUSLY;
+
+    /**
+     * 最远距离
+     */
+    private int mMaxDistanceWeights;
+
+    /**
+     * 原位置圆的最小半径
+     */
+    private int mMinAnchorRadius;
+
+    /**
+     * 原位置圆的最爱半径
+     */
+    private int mMaxAnchorRadius;
+
+    /**
+     * 可以恢复距离
+     */
+    private int mCanRecoverDistance;
+
+    /**
+     * 当前的拖动，不为空时{@link #onTouchEvent(MotionEvent)}处理拖动事件
+     */
+    private DragSession mDragSession;
+
+    /**
+     * 按下的手指ID
+     */
+    private int mPointerId;
+
+    /**
+     * 已按下但尚未超过{@link #mTouchSlop}，此时还未开始拖动
+     */
+    private boolean mPendingDragFlag;
+
+    /**
+     * 开始拖动前需要移动的距离
+     */
+    private int mTouchSlop;
+
+    /**
+     * 按下时的屏幕X坐标
+     */
+    private float mDownRawX;
+
+    /**
+     * 按下时的屏幕Y坐标
+     */
+    private float mDownRawY;
+
+    /**
+     * 是否启用低延迟拖动
+     */
+    private boolean mLowLatencyEnable;
+
+    /**
+     * 低延迟拖动时预测手指位置，按需创建
+     */
+    private MotionPredictor mMotionPredictor;
+
+    private static final String TAG = "DraggableHelper";
+
+    private static Method mRequestUnbufferedDispatch;
+
+    private static boolean mRequestUnbufferedDispatchFetched;
+
+    /**
+     * 消失动画
+     */
+    private int[] mDisappearAnimationArray;
+
+    /**
+     * 消失动画的帧数组资源，相同资源的视图共享解码后的帧
+     */
+    private int mDisappearAnimationArrayId;
+
+    /**
+     * 消失动画的着色颜色，透明时不着色
+     */
+    private int mDisappearAnimationTint;
+
+    /**
+     * 消失动画的持续时间
+     */
+    private int mDisappearAnimationDuration;
+
+    /**
+     * 消失动画的大小
+     */
+    private float mDisappearAnimationHalfSize;
+
+    /**
+     * 消失动画模式
+     */
+    private DraggableView.DisappearMode mDisappearMode = DraggableView.DisappearMode.FRAMES;
+
+    /**
+     * 粒子爆炸的粒子数量
+     */
+    private int mDisappearParticleCount;
+
+    /**
+     * 消失动画区域，复用以避免每次销毁创建对象
+     */
+    private final Rect mDisappearAnimationRect = new Rect();
+
+    /**
+     * 读取跟随视图位置时复用的区域
+     */
+    private final Rect mGeometryRect = new Rect();
+
+    /**
+     * 减震动画的持续时间
+     */
+    private int mDampingAnimationDuration;
+
+    /**
+     * 减震动画的回弹次数
+     */
+    private int mDampingAnimationCount;
+
+    /**
+     * 原位置中心X坐标
+     */
+    private float mAnchorCenterX;
+    /**
+     * 原位置中心Y坐标
+     */
+    private float mAnchorCenterY;
+
+    /**
+     * 拖动图标中心X坐标
+     */
+    private float mTargetCenterX;
+    /**
+     * 拖动图标中心Y坐标
+     */
+    private float mTargetCenterY;
+
+    /**
+     * 视图宽
+     */
+    private int mWidth;
+
+    /**
+     * 视图高
+     */
+    private int mHeight;
+
+    /**
+     * 点击事件与视图left的偏移量
+     */
+    private float mOffsetX;
+
+    /**
+     * 点击事件与视图Top的偏移量
+     */
+    private float mOffsetY;
+
+    /**
+     * 是否已经超出最远距离
+     */
+    private boolean mIsExceedMaxDistance = false;
+
+    /**
+     * 是否绘制自身，在拖动的过程中本视图会被隐藏
+     */
+    private boolean mDrawSelf;
+
+    /**
+     * 绘制拖拽动画的贝塞尔曲线的颜色
+     */
+    private int mDraggableBezierColor;
+
+    /**
+     * 视图标记
+     */
+    private String mMark;
+
+    /**
+     * 领导视图标记
+     */
+    private String mLeaderMark;
+
+    /**
+     * 销毁排序字段
+     * 如果{@link #mFollowMode}为{@link DraggableView.FollowMode#TRAILING}，决定拖拽销毁时的销毁顺序，非负整数（大于等于0）
+     */
+    private int mSort = -1;
+    /**
+     * 从属视图
+     */
+    private List<DraggableViewWeakReference> mSubordinateList = new ArrayList<>();
+
+    /**
+     * 自身计数，有标记的跟随视图的计数同时按标记保存在{@link CountTree}中
+     */
+    private int mCount;
+
+    /**
+     * 没有标记的跟随视图的计数是否已累加到领导链上，只有附加到窗口时才会累加
+     */
+    private boolean mCountDispatched;
+
+    /**
+     * 是否由计数驱动显示文本
+     */
+    private boolean mCountTextEnable;
+
+    /**
+     * 计数文本是否已等待下一帧刷新
+     */
+    private boolean mCountTextPending;
+
+    /**
+     * 每帧最多刷新一次计数文本
+     */
+    private final Runnable mApplyCountTextRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mCountTextPending = false;
+            mCallback.onTotalCountChanged(getTotalCount());
+        }
+    };
+
+    /**
+     * 拖拽销毁的动画监听
+     */
+    private final Animator.AnimatorListener mDragDisappearListener = new Animator.AnimatorListener() {
+        @Override
+        public void onAnimationStart(Animator animator) {
+
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animator) {
+            mCallback.onDisappearComplete();
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animator) {
+
+        }
+
+        @Override
+        public void onAnimationRepeat(Animator animator) {
+
+        }
+    };
+
+    DraggableHelper(@NonNull View view, @Nullable AttributeSet attrs, int defStyleAttr,
+                    @NonNull Callback callback) {
+        mView = view;
+        mCallback = callback;
+        Context context = view.getContext();
+        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        DraggableConfig config = DraggableConfig.obtain(context, attrs, defStyleAttr);
+        mDragEnable = config.dragEnable;
+        mMaxDistanceWeights = config.maxDragDistance;
+        mCanRecoverDistance = config.canRecoverDistance;
+        mMinAnchorRadius = config.minAnchorRadius;
+        mMaxAnchorRadius = config.maxAnchorRadius;
+        //帧数组与其他视图共享，修改时整体替换
+        mDisappearAnimationArray = config.disappearAnimationArray;
+        mDisappearAnimationArrayId = config.disappearAnimationArrayId;
+        mDisappearAnimationDuration = config.disappearAnimationDuration;
+        mDisappearAnimationHalfSize = config.disappearAnimationHalfSize;
+        mDisappearAnimationTint = config.disappearAnimationTint;
+        mDisappearMode = config.disappearMode;
+        mDisappearParticleCount = config.disappearParticleCount;
+        mDraggableBezierColor = config.draggableBezierColor;
+        mDampingAnimationDuration = config.dampingAnimationDuration;
+        mDampingAnimationCount = config.dampingAnimationCount;
+        mFollowDisappearEnable = config.followDisappearEnable;
+        mFollowMode = config.followMode;
+        mLowLatencyEnable = config.lowLatencyEnable;
+
+        calibrationCanRecoverDistance();
+
+        calibrationAnchorRadius();
+
+        mDrawSelf = true;
+    }
+
+    /**
+     * @return 宿主视图
+     */
+    @NonNull
+    public View getView() {
+        return mView;
+    }
+
+    private void calibrationAnchorRadius() {
+        calibrationAnchorRadius(mView.getWidth(), mView.getHeight());
+    }
+
+    private void calibrationAnchorRadius(int width, int height) {
+        if (mMaxAnchorRadius <= 0) {
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+            mMaxAnchorRadius = (int) (width < height ? width / 2.0f : height / 2.0f);
+        }
+        if (mMinAnchorRadius <= 0 || mMinAnchorRadius >= mMaxAnchorRadius) {
+            mMinAnchorRadius = (int) (mMaxAnchorRadius * 0.4f);
+        }
+    }
+
+    private void calibrationCanRecoverDistance() {
+        if (mCanRecoverDistance > mMaxDistanceWeights) {
+            mCanRecoverDistance = mMaxDistanceWeights;
+        }
+    }
+
+    private void setAnimationArray(TypedArray explosionTypeArray) {
+        mDisappearAnimationArray = new int[explosionTypeArray.length()];
+        for (int i = 0; i < mDisappearAnimationArray.length; i++) {
+            mDisappearAnimationArray[i] = explosionTypeArray.getResourceId(i, 0);
+        }
+    }
+
+    /**
+     * 宿主视图附加到窗口
+     */
+    void onAttachedToWindow() {
+        if (!mCountDispatched && TextUtils.isEmpty(mMark) && !TextUtils.isEmpty(mLeaderMark)) {
+            mCountDispatched = true;
+            DraggableManager.getInstance().getCountTree().dispatch(mLeaderMark, mCount);
+        }
+        DraggableManager.getInstance().applyDeferredCount(this);
+    }
+
+    /**
+     * 宿主视图离开窗口
+     */
+    void onDetachedFromWindow() {
+        //没有标记的视图离开窗口后可能被回收，不再计入领导者的计数，有标记的计数保留在标记上
+        if (mCountDispatched) {
+            DraggableManager.getInstance().getCountTree().dispatch(mLeaderMark, -mCount);
+            mCountDispatched = false;
+        }
+    }
+
+    /**
+     * 宿主视图大小变化，第一次确定大小时校准原位置的半径
+     */
+    void onSizeChanged(int w, int h, int oldw, int oldh) {
+        if (oldw <= 0 || oldh <= 0) {
+            calibrationAnchorRadius(w, h);
+        }
+    }
+
+    /**
+     * 处理宿主视图的触摸事件，不属于拖动的事件交给宿主视图的父类
+     *
+     * @param event 触摸事件
+     * @return 是否消费该事件
+     */
+    boolean onTouchEvent(MotionEvent event) {
+        if (!mDragEnable) {
+            //拖动效果未开启
+            return mCallback.onSuperTouchEvent(event);
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                //移动超过mTouchSlop后才开始拖动，点击不需要锁定遮罩与录制快照
+                mDragSession = null;
+                mPendingDragFlag = true;
+                mPointerId = event.getPointerId(0);
+                mDownRawX = event.getRawX();
+                mDownRawY = event.getRawY();
+                setScrollableParentIntercept(false);
+                mCallback.onSuperTouchEvent(event);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (mDragSession != null) {
+                    updateDraggable(event);
+                    return true;
+                }
+                if (mPendingDragFlag && isBeyondTouchSlop(event)) {
+                    mPendingDragFlag = false;
+                    mDragSession = DraggableManager.getInstance().lockDraw(mView, mPointerId);
+                    if (mDragSession != null) {
+                        cancelSuperTouch(event);
+                        if (mLowLatencyEnable) {
+                            requestUnbufferedDispatch(event);
+                        }
+                        startDraggable();
+                        updateDraggable(event);
+                        return true;
+                    }
+                    setScrollableParentIntercept(true);
+                }
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                //其他手指由各自按下的视图处理
+                if (mDragSession != null) {
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                if (mDragSession != null) {
+                    if (event.getPointerId(event.getActionIndex()) == mPointerId) {
+                        stopDraggable(event);
+                    }
+                    return true;
+                }
+                break;
+            default:
+                if (mDragSession != null) {
+                    stopDraggable(event);
+                    return true;
+                }
+                if (mPendingDragFlag) {
+                    mPendingDragFlag = false;
+                    setScrollableParentIntercept(true);
+                }
+                break;
+        }
+        return mCallback.onSuperTouchEvent(event) || mPendingDragFlag;
+    }
+
+    private boolean isBeyondTouchSlop(MotionEvent event) {
+        float dx = event.getRawX() - mDownRawX;
+        float dy = event.getRawY() - mDownRawY;
+        return dx * dx + dy * dy > (float) mTouchSlop * mTouchSlop;
+    }
+
+    /**
+     * 开始拖动后取消按下状态与点击
+     */
+    private void cancelSuperTouch(MotionEvent event) {
+        MotionEvent cancel = MotionEvent.obtain(event);
+        cancel.setAction(MotionEvent.ACTION_CANCEL);
+        mCallback.onSuperTouchEvent(cancel);
+        cancel.recycle();
+    }
+
+    private void setScrollableParentIntercept(boolean intercept) {
+        ViewGroup parent = getScrollableParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(!intercept);
+        }
+    }
+
+    /**
+     * 请求不按帧批处理触摸事件，Android 11以下没有该方法，直接忽略
+     */
+    private void requestUnbufferedDispatch(MotionEvent event) {
+        if (Build.VERSION.SDK_INT < 30) {
+            return;
+        }
+        if (!mRequestUnbufferedDispatchFetched) {
+            try {
+                mRequestUnbufferedDispatch = View.class.getMethod("requestUnbufferedDispatch",
+                        MotionEvent.class);
+            } catch (NoSuchMethodException e) {
+                Log.w(TAG, "requestUnbufferedDispatch not found", e);
+            }
+            mRequestUnbufferedDispatchFetched = true;
+        }
+        if (mRequestUnbufferedDispatch == null) {
+            return;
+        }
+        try {
+            mRequestUnbufferedDispatch.invoke(mView, event);
+        } catch (Exception e) {
+            Log.w(TAG, "requestUnbufferedDispatch failed", e);
+        }
+    }
+
+    private void startDraggable() {
+        mIsExceedMaxDistance = false;
+        if (mMotionPredictor != null) {
+            mMotionPredictor.reset();
+        }
+
+        Rect rect = getViewRectOnScreen();
+
+        mWidth = mView.getWidth();
+        mHeight = mView.getHeight();
+
+        mOffsetX = mDownRawX - rect.left;
+        mOffsetY = mDownRawY - rect.top;
+
+        mAnchorCenterX = rect.centerX();
+        mAnchorCenterY = rect.centerY();
+
+        mTargetCenterX = mAnchorCenterX;
+        mTargetCenterY = mAnchorCenterY;
+
+        Picture picture = getViewToPicture();
+        setDrawSelf(false);
+        mDragSession.start(picture, mDraggableBezierColor, rect);
+        mDragSession.setReach(mMaxDistanceWeights, mDisappearAnimationHalfSize);
+    }
+
+    /**
+     * 拖动过程中也可能开启低延迟拖动，第一次使用时才创建预测器
+     */
+    @NonNull
+    private MotionPredictor obtainMotionPredictor() {
+        if (mMotionPredictor == null) {
+            mMotionPredictor = new MotionPredictor(Math.max(mWidth, mHeight) / 2.0f);
+        }
+        return mMotionPredictor;
+    }
+
+    private Rect getViewRectOnScreen() {
+        final int[] location = new int[2];
+        mView.getLocationOnScreen(location);
+        return new Rect(location[0], location[1] ,
+                location[0] + mView.getWidth(),
+                location[1] + mView.getHeight());
+    }
+
+    private void updateDraggable(MotionEvent event) {
+
+        Rect rect;
+        if (mLowLatencyEnable) {
+            //按预测的位置绘制，抵消输入与绘制的延迟
+            int index = Math.max(0, event.findPointerIndex(mPointerId));
+            MotionPredictor motionPredictor = obtainMotionPredictor();
+            motionPredictor.addMovement(event, index);
+            motionPredictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME,
+                    SystemClock.uptimeMillis());
+            rect = getTargetRect(motionPredictor.getPredictedX(),
+                    motionPredictor.getPredictedY());
+        } else {
+            rect = getTargetRect(event);
+        }
+        mTargetCenterX = rect.centerX();
+        mTargetCenterY = rect.centerY();
+
+        double distance = getDistance();
+        if (distance > mMaxDistanceWeights) {
+            mIsExceedMaxDistance = true;
+        }
+        //计算当前移动距离占最远距离的百分比
+        // 1减去当前距离百分比乘以半径的可变动范围得到剩余可变动半径
+        // 用最小半径加上剩余可变动半径得到当前半径
+        float anchorRadius = mIsExceedMaxDistance ? 0 :
+                (float) (1.0f - distance / mMaxDistanceWeights) * (getMaxRadius() - getMinRadius()) + getMinRadius();
+        mDragSession.update(rect, anchorRadius, !mIsExceedMaxDistance);
+    }
+
+    @NonNull
+    private Rect getTargetRect(MotionEvent event) {
+        //getRawX只对应第一个手指，其他手指按视图内坐标换算
+        int index = Math.max(0, event.findPointerIndex(mPointerId));
+        float rawX = event.getRawX() - event.getX() + event.getX(index);
+        float rawY = event.getRawY() - event.getY() + event.getY(index);
+        return getTargetRect(rawX, rawY);
+    }
+
+    @NonNull
+    private Rect getTargetRect(float rawX, float rawY) {
+        int left = (int) (rawX - mOffsetX);
+        int top = (int) (rawY - mOffsetY);
+        return new Rect(left, top, left + mWidth, top + mHeight);
+    }
+
+    private void stopDraggable(MotionEvent event) {
+        setScrollableParentIntercept(true);
+
+        Rect rect = getTargetRect(event);
+        mTargetCenterX = rect.centerX();
+        mTargetCenterY = rect.centerY();
+
+        boolean draggableValid = mIsExceedMaxDistance && getDistance() > mCanRecoverDistance;
+        boolean playDamping = (draggableValid && checkDisappearAnimation())
+                || (!mIsExceedMaxDistance && checkDampingAnimation());
+        DragSession session = mDragSession;
+        mDragSession = null;
+        session.stop(rect, playDamping);
+        if (draggableValid) {
+            mCallback.onDragComplete();
+            if (!playDisappearAnimation(mTargetCenterX, mTargetCenterY, mDragDisappearListener,
+                    session)) {
+                session.end();
+            }
+        } else if (!mIsExceedMaxDistance) {
+            playDampingAnimation(session);
+        } else {
+            setDrawSelf(true);
+        }
+    }
+
+    /**
+     * 检查震荡动画是否有效
+     *
+     * @return true 有效, false 无效
+     */
+    private boolean checkDampingAnimation() {
+        return mDampingAnimationCount > 0 && mDampingAnimationDuration > 0;
+    }
+
+    Picture getViewToPicture() {
+        int width = mView.getWidth();
+        int height = mView.getHeight();
+        Picture picture = DraggableManager.getInstance().obtainPicture();
+        Canvas canvas = picture.beginRecording(width, height);
+        mView.draw(canvas);
+        picture.endRecording();
+        return picture;
+    }
+
+    /**
+     * 将可见部分录制到{@link Picture}，用作尾随消失时的占位图，与拖动时的快照一样不分配位图
+     *
+     * @param picture 录制目标
+     * @return 是否已录制，不可见时为false
+     */
+    boolean recordVisiblePicture(@NonNull Picture picture) {
+        int width = mView.getWidth();
+        int height = mView.getHeight();
+        if (width <= 0 || height <= 0 || !mView.getLocalVisibleRect(mGeometryRect)) {
+            return false;
+        }
+        Canvas canvas = picture.beginRecording(width, height);
+        canvas.clipRect(mGeometryRect);
+        mView.draw(canvas);
+        picture.endRecording();
+        return true;
+    }
+
+    /**
+     * 获取原位置与拖动点的距离
+     *
+     * @return 距离
+     */
+    public double getDistance() {
+        return Math.sqrt(Math.pow(mAnchorCenterX - mTargetCenterX, 2) + Math.pow(mAnchorCenterY - mTargetCenterY, 2));
+    }
+
+    /**
+     * 获取拖动失效最大距离
+     *
+     * @return 最大距离
+     */
+    public int getMaxDistance() {
+        return mMaxDistanceWeights;
+    }
+
+    /**
+     * 设置拖动失效最大距离
+     *
+     * @param maxDistanceWeights 最大距离
+     */
+    public void setMaxDistance(int maxDistanceWeights) {
+        mMaxDistanceWeights = maxDistanceWeights;
+        calibrationCanRecoverDistance();
+    }
+
+    /**
+     * 获取原位置最小半径
+     *
+     * @return 最小半径
+     */
+    public int getMinRadius() {
+        return mMinAnchorRadius;
+    }
+
+    /**
+     * 设置原位置最小半径
+     *
+     * @param minRadius 最小半径
+     */
+    public void setMinRadius(int minRadius) {
+        if (minRadius <= 0) {
+            throw new IllegalArgumentException("miniRadius should be greater than zero");
+        }
+        mMinAnchorRadius = minRadius;
+        calibrationAnchorRadius();
+    }
+
+    /**
+     * 获取原位置最大半径
+     *
+     * @return 最大半径
+     */
+    public int getMaxRadius() {
+        return mMaxAnchorRadius;
+    }
+
+    /**
+     * 获取原位置最大半径
+     *
+     * @param maxRadius  最大半径
+     */
+    public void setMaxRadius(int maxRadius) {
+        if (maxRadius <= 0) {
+            throw new IllegalArgumentException("maxRadius should be greater than zero");
+        }
+        mMaxAnchorRadius = maxRadius;
+        calibrationAnchorRadius();
+    }
+
+    /**
+     * 获取可以恢复距离
+     *
+     * @return 可以恢复距离
+     */
+    public int getCanRecoverDistance() {
+        return mCanRecoverDistance;
+    }
+
+    /**
+     * 设置可以恢复距离
+     *
+     * @param canRecoverDistance 可以恢复距离
+     */
+    public void setCanRecoverDistance(int canRecoverDistance) {
+        this.mCanRecoverDistance = canRecoverDistance;
+        calibrationCanRecoverDistance();
+    }
+
+    /**
+     * 获取消失动画的持续时间
+     *
+     * @return 消失动画的持续时间
+     */
+    public int getAnimationDuration() {
+        return mDisappearAnimationDuration;
+    }
+
+    /**
+     * 设置消失动画的持续时间
+     *
+     * @param animationDuration 消失动画的持续时间
+     */
+    public void setAnimationDuration(int animationDuration) {
+        this.mDisappearAnimationDuration = animationDuration;
+    }
+
+    /**
+     * 获取消失动画，帧数组可能与其他视图共享，返回的是副本
+     *
+     * @return 消失动画
+     */
+    public int[] getAnimationArray() {
+        return mDisappearAnimationArray != null ? mDisappearAnimationArray.clone() : null;
+    }
+
+    /**
+     * 设置消失动画，保存的是副本，之后修改传入的数组不会生效
+     *
+     * @param animationArray 消失动画
+     */
+    public void setAnimationArray(int[] animationArray) {
+        this.mDisappearAnimationArray = animationArray != null ? animationArray.clone() : null;
+        this.mDisappearAnimationArrayId = 0;
+    }
+
+    /**
+     * 通过数组资源设置消失动画，使用相同资源的视图共享解码后的帧
+     *
+     * @param arrayResId 消失动画帧数组资源
+     */
+    public void setAnimationArrayResource(@ArrayRes int arrayResId) {
+        TypedArray explosionTypeArray = mView.getResources().obtainTypedArray(arrayResId);
+        setAnimationArray(explosionTypeArray);
+        explosionTypeArray.recycle();
+        mDisappearAnimationArrayId = arrayResId;
+    }
+
+    /**
+     * 获取消失动画的着色颜色
+     *
+     * @return 着色颜色，透明时不着色
+     */
+    public int getAnimationTint() {
+        return mDisappearAnimationTint;
+    }
+
+    /**
+     * 设置消失动画的着色颜色，着色在绘制时进行，不需要额外的帧资源
+     *
+     * @param animationTint 着色颜色，透明时不着色
+     */
+    public void setAnimationTint(@ColorInt int animationTint) {
+        this.mDisappearAnimationTint = animationTint;
+    }
+
+    /**
+     * 获取消失动画的大小
+     *
+     * @return 消失动画的大小
+     */
+    public int getAnimationSize() {
+        return (int) (mDisappearAnimationHalfSize * 2);
+    }
+
+    /**
+     * 设置消失动画的大小
+     *
+     * @param mAnimationHalfSize 消失动画的大小
+     */
+    public void setAnimationHalfSize(int mAnimationHalfSize) {
+        this.mDisappearAnimationHalfSize = mAnimationHalfSize / 2.0f;
+    }
+
+    /**
+     * 获取消失动画模式 {@link DraggableView.DisappearMode}
+     *
+     * @return {@link DraggableView.DisappearMode}
+     */
+    public DraggableView.DisappearMode getDisappearMode() {
+        return mDisappearMode;
+    }
+
+    /**
+     * 设置消失动画模式 {@link DraggableView.DisappearMode}
+     *
+     * @param disappearMode {@link DraggableView.DisappearMode}
+     */
+    public void setDisappearMode(DraggableView.DisappearMode disappearMode) {
+        mDisappearMode = disappearMode;
+        if (mDisappearMode == null) {
+            mDisappearMode = DraggableView.DisappearMode.FRAMES;
+        }
+    }
+
+    /**
+     * 获取粒子爆炸的粒子数量
+     *
+     * @return 粒子数量
+     */
+    public int getDisappearParticleCount() {
+        return mDisappearParticleCount;
+    }
+
+    /**
+     * 设置粒子爆炸的粒子数量，{@link #getDisappearMode()}为{@link DraggableView.DisappearMode#PARTICLES}时有效
+     *
+     * @param disappearParticleCount 粒子数量
+     */
+    public void setDisappearParticleCount(int disappearParticleCount) {
+        mDisappearParticleCount = disappearParticleCount;
+    }
+
+    /**
+     * 获取绘制拖拽动画的贝塞尔曲线的颜色
+     *
+     * @return 绘制拖拽动画的贝塞尔曲线的颜色
+     */
+    public int getDraggableBezierColor() {
+        return mDraggableBezierColor;
+    }
+
+    /**
+     * 设置绘制拖拽动画的贝塞尔曲线的颜色
+     *
+     * @param draggableBezierColor 绘制拖拽动画的贝塞尔曲线的颜色
+     */
+    public void setDraggableBezierColor(int draggableBezierColor) {
+        mDraggableBezierColor = draggableBezierColor;
+    }
+
+    /**
+     * 设置是否允许拖动
+     *
+     * @param enabled true 允许,false 禁止
+     */
+    public void setDragEnabled(boolean enabled) {
+        mDragEnable = enabled;
+    }
+
+    /**
+     * 是否允许拖动
+     *
+     * @return true 允许,false 禁止
+     */
+    public boolean isDragEnable() {
+        return mDragEnable;
+    }
+
+    /**
+     * 是否启用低延迟拖动
+     *
+     * @return true 启用，false 不启用
+     */
+    public boolean isLowLatencyEnable() {
+        return mLowLatencyEnable;
+    }
+
+    /**
+     * 设置是否启用低延迟拖动，启用后拖动时按最近的触摸点预测手指位置绘制，
+     * Android 11及以上还会请求不按帧批处理触摸事件。拖动过程中修改时预测立即生效，
+     * 不按帧批处理从下次开始拖动时生效
+     *
+     * @param lowLatencyEnable true 启用，false 不启用
+     */
+    public void setLowLatencyEnable(boolean lowLatencyEnable) {
+        mLowLatencyEnable = lowLatencyEnable;
+    }
+
+    /**
+     * 设置是否启用跟随消失模式
+     *
+     * @return true 启用跟随，false 不启用跟随
+     */
+    public boolean isFollowDisappearEnable() {
+        return mFollowDisappearEnable;
+    }
+
+    /**
+     * 是否启用跟随消失模式
+     *
+     * @param followDisappearEnable true 启用跟随，false 不启用跟随
+     */
+    public void setFollowDisappearEnable(boolean followDisappearEnable) {
+        mFollowDisappearEnable = followDisappearEnable;
+    }
+
+    /**
+     * 跟随消失模式 {@link DraggableView.FollowMode}
+     *
+     * @return {@link DraggableView.FollowMode}
+     */
+    public DraggableView.FollowMode getFollowMode() {
+        return mFollowMode;
+    }
+
+    /**
+     * 跟随消失模式 {@link DraggableView.FollowMode}
+     *
+     * @param followMode @link DraggableView.FollowMode}
+     */
+    public void setFollowMode(DraggableView.FollowMode followMode) {
+        mFollowMode = followMode;
+        if (mFollowMode == null) {
+            mFollowMode = DraggableView.FollowMode.SIMULTANEOUSLY;
+        }
+    }
+
+    /**
+     * 获取减震动画的持续时间
+     *
+     * @return 减震动画的持续时间
+     */
+    public int getDampingAnimationDuration() {
+        return mDampingAnimationDuration;
+    }
+
+    /**
+     * 设置减震动画的持续时间
+     *
+     * @param dampingAnimationDuration 减震动画的持续时间
+     */
+    public void setDampingAnimationDuration(int dampingAnimationDuration) {
+        this.mDampingAnimationDuration = dampingAnimationDuration;
+    }
+
+    /**
+     * 获取减震动画的回弹次数
+     *
+     * @return 减震动画的回弹次数
+     */
+    public int getDampingAnimationCount() {
+        return mDampingAnimationCount;
+    }
+
+    /**
+     * 设置减震动画的回弹次数
+     *
+     * @param dampingAnimationCount 减震动画的回弹次数
+     */
+    public void setDampingAnimationCount(int dampingAnimationCount) {
+        this.mDampingAnimationCount = dampingAnimationCount;
+    }
+
+    /**
+     * 获取视图标记
+     *
+     * @return 视图标记
+     */
+    public String getMark() {
+        return mMark;
+    }
+
+    /**
+     * 设置视图标记
+     *
+     * @param mark 视图标记
+     */
+    public void setMark(String mark) {
+        if (TextUtils.equals(mMark, mark)) {
+            return;
+        }
+        String oldMark = mMark;
+        CountTree countTree = DraggableManager.getInstance().getCountTree();
+        if (mCountDispatched) {
+            countTree.dispatch(mLeaderMark, -mCount);
+            mCountDispatched = false;
+        }
+        //跟随标记的计数属于标记，例如被复用的列表行，旧计数留在旧标记上，换为新标记的计数
+        if (isFollowerMark(countTree, oldMark) || isFollowerMark(countTree, mark)) {
+            mCount = TextUtils.isEmpty(mark) ? 0 : countTree.getCount(mark);
+        }
+        mMark = mark;
+        mSubordinateList.clear();
+        if (!TextUtils.isEmpty(mLeaderMark)) {
+            if (!TextUtils.isEmpty(mMark)) {
+                countTree.setLeader(mMark, mLeaderMark, mCount);
+            } else if (ViewCompat.isAttachedToWindow(mView)) {
+                mCountDispatched = true;
+                countTree.dispatch(mLeaderMark, mCount);
+            }
+        }
+        scheduleCountText();
+        DraggableManager.getInstance().encaseDraggableView(oldMark, this);
+    }
+
+    /**
+     * 获取领导视图标记
+     *
+     * @return 领导视图标记
+     */
+    public String getLeaderMark() {
+        return mLeaderMark;
+    }
+
+    /**
+     * 设置领导标记
+     *
+     * @param leaderMark 领导标记
+     */
+    public void setLeaderMark(String leaderMark) {
+        if (TextUtils.equals(mLeaderMark, leaderMark)) {
+            return;
+        }
+        DraggableViewWeakReference draggableHelperWeakReference =
+                new DraggableViewWeakReference(this);
+        CountTree countTree = DraggableManager.getInstance().getCountTree();
+        if (!TextUtils.isEmpty(mLeaderMark)) {
+            DraggableHelper leader = DraggableManager.getInstance().findLeader(this);
+            if (leader != null) {
+                leader.mSubordinateList.remove(draggableHelperWeakReference);
+            }
+            if (mCountDispatched) {
+                countTree.dispatch(mLeaderMark, -mCount);
+                mCountDispatched = false;
+            }
+        }
+        mLeaderMark = leaderMark;
+        if (!TextUtils.isEmpty(mLeaderMark)) {
+            DraggableHelper leader = DraggableManager.getInstance().findLeader(this);
+            if (leader == null) {
+                throw new RuntimeException("Not find leader,Please set the leader mark first.");
+            }
+            List<DraggableViewWeakReference> draggableHelperWeakReferences = leader.mSubordinateList;
+            draggableHelperWeakReferences.removeAll(Arrays.asList(draggableHelperWeakReference,
+                    DraggableViewWeakReference.NULL));
+            draggableHelperWeakReferences.add(draggableHelperWeakReference);
+        }
+        if (!TextUtils.isEmpty(mMark)) {
+            countTree.setLeader(mMark, TextUtils.isEmpty(mLeaderMark) ? null : mLeaderMark,
+                    mCount);
+        } else if (!TextUtils.isEmpty(mLeaderMark) && ViewCompat.isAttachedToWindow(mView)) {
+            mCountDispatched = true;
+            countTree.dispatch(mLeaderMark, mCount);
+        }
+    }
+
+    /**
+     * 获取自身计数
+     *
+     * @return 自身计数
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 设置自身计数，计数变化会沿领导链向上传递，文本在下一帧统一刷新。
+     * 有标记的跟随视图的计数按标记保存，视图离开窗口或被复用后仍计入领导者的计数
+     *
+     * @param count 自身计数，非负整数
+     */
+    public void setCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be less than 0");
+        }
+        DraggableManager.getInstance().discardDeferredCount(mMark);
+        mCountTextEnable = true;
+        int delta = count - mCount;
+        mCount = count;
+        scheduleCountText();
+        CountTree countTree = DraggableManager.getInstance().getCountTree();
+        if (!TextUtils.isEmpty(mMark)) {
+            if (!TextUtils.isEmpty(mLeaderMark)) {
+                countTree.setLeader(mMark, mLeaderMark, count);
+            } else {
+                countTree.setCount(mMark, count);
+            }
+        } else if (mCountDispatched) {
+            countTree.dispatch(mLeaderMark, delta);
+        }
+    }
+
+    /**
+     * 获取自身与所有从属视图的计数之和
+     *
+     * @return 计数之和
+     */
+    public int getTotalCount() {
+        if (TextUtils.isEmpty(mMark)) {
+            return mCount;
+        }
+        return mCount + DraggableManager.getInstance().getCountTree().getSubordinateCount(mMark);
+    }
+
+    private static boolean isFollowerMark(CountTree countTree, String mark) {
+        return !TextUtils.isEmpty(mark) && countTree.getLeaderMark(mark) != null;
+    }
+
+    /**
+     * 跟随标记的计数变化，在下一帧刷新计数文本
+     */
+    void onSubordinateCountChanged() {
+        mCountTextEnable = true;
+        scheduleCountText();
+    }
+
+    /**
+     * 合并同一帧内的多次计数变化，只刷新一次文本
+     */
+    private void scheduleCountText() {
+        if (!mCountTextEnable || mCountTextPending) {
+            return;
+        }
+        mCountTextPending = true;
+        ViewCompat.postOnAnimation(mView, mApplyCountTextRunnable);
+    }
+
+    /**
+     * 获取销毁排序字段， {@link #mFollowMode}为{@link DraggableView.FollowMode#TRAILING}该字段有效
+     *
+     * @return 销毁排序字段
+     */
+    public int getSort() {
+        return mSort;
+    }
+
+    /**
+     * 设置销毁排序字段，{@link #mFollowMode}为{@link DraggableView.FollowMode#TRAILING}该字段有效
+     * @param sort
+     */
+    public void setSort(int sort) {
+        if (sort < 0) {
+            throw new IllegalArgumentException("Sort field cannot be less than 0");
+        }
+        mSort = sort;
+    }
+
+
+    @Override
+    public int compareTo(@NonNull DraggableHelper draggableHelper) {
+        return compare(this, draggableHelper);
+    }
+
+    public int compare(DraggableHelper draggableHelper1, DraggableHelper draggableHelper2) {
+        return (draggableHelper1.mSort < draggableHelper2.mSort) ? -1 :
+                ((draggableHelper1.mSort == draggableHelper2.mSort) ? 0 : 1);
+    }
+
+    /**
+     * 交接下属
+     *
+     * @param toDraggableHelper 被交接人
+     */
+    void handoverSubordinate(DraggableHelper toDraggableHelper) {
+        toDraggableHelper.mSubordinateList.addAll(mSubordinateList);
+        mSubordinateList.clear();
+        //从属计数按标记保存，新视图直接读取，只需刷新文本
+        String mark = toDraggableHelper.getMark();
+        if (!TextUtils.isEmpty(mark)
+                && DraggableManager.getInstance().getCountTree().getSubordinateCount(mark) != 0) {
+            toDraggableHelper.onSubordinateCountChanged();
+        }
+    }
+
+    /**
+     * 获取可滑动的父视图
+     *
+     * @return 父视图
+     */
+    private ViewGroup getScrollableParent() {
+        View target = mView;
+        while (true) {
+            View parent;
+            try {
+                parent = (View) target.getParent();
+            } catch (Exception e) {
+                return null;
+            }
+            if (parent == null) {
+                return null;
+            }
+            if (parent instanceof ListView || parent instanceof ScrollView) {
+                return (ViewGroup) parent;
+            }
+            target = parent;
+        }
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (obj instanceof DraggableHelper && !TextUtils.isEmpty(getMark()) && !TextUtils.isEmpty(((DraggableHelper) obj).getMark())) {
+            return TextUtils.equals(getMark(), ((DraggableHelper) obj).getMark());
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!TextUtils.isEmpty(getMark())) {
+            return getMark().hashCode();
+        }
+        return super.hashCode();
+    }
+
+    /**
+     * 当前是否可见
+     *
+     * @return true 可见,false 不可见
+     */
+    boolean isCover() {
+        if (mView.getVisibility() != View.VISIBLE) {
+            return false;
+        }
+        if (mView.getParent() == null) {
+            return false;
+        }
+        Rect rect = new Rect();
+        return mView.getGlobalVisibleRect(rect);
+    }
+
+    /**
+     * 宿主视图是否绘制自身，拖动与消失动画期间由遮罩绘制
+     *
+     * @return true 宿主视图绘制自身
+     */
+    boolean isDrawSelf() {
+        return mDrawSelf;
+    }
+
+    void setDrawSelf(boolean drawSelf) {
+        if (mDrawSelf == drawSelf) {
+            return;
+        }
+        mDrawSelf = drawSelf;
+        mView.invalidate();
+    }
+
+    /**
+     * 视图有位移后，播放减震动画
+     */
+    private void playDampingAnimation(@NonNull DragSession session) {
+        if (!checkDampingAnimation()) {
+            session.end();
+            setDrawSelf(true);
+            return;
+        }
+        DampingAnimator dampingAnimator =
+                DraggableManager.getInstance().newDampingAnimation(session);
+        if (dampingAnimator != null) {
+            dampingAnimator.setAnchor(mAnchorCenterX - mWidth / 2.0f,
+                    mAnchorCenterY - mHeight / 2.0f);
+            dampingAnimator.setDuration(mDampingAnimationDuration);
+            dampingAnimator.setDampingCount(mDampingAnimationCount);
+            dampingAnimator.addListener(this);
+            dampingAnimator.start();
+        } else {
+            session.end();
+            setDrawSelf(true);
+        }
+    }
+
+    /**
+     * 播放消失动画
+     *
+     * @param listener 动画监听
+     * @return true 开始播放，false 播放失败
+     */
+    public boolean playDisappearAnimation(@Nullable Animator.AnimatorListener listener) {
+        if (!isCover()) {
+            return false;
+        }
+        calculationCenterPoint();
+        return playDisappearAnimation(mAnchorCenterX, mAnchorCenterY, listener, null);
+    }
+
+    private void calculationCenterPoint() {
+        int[] location = new int[2];
+        mView.getLocationOnScreen(location);
+        mAnchorCenterX = location[0] + mView.getWidth() / 2.0f;
+        mAnchorCenterY = location[1] + mView.getHeight() / 2.0f;
+    }
+
+    /**
+     * 播放消失动画
+     *
+     * @param x       中心点X坐标
+     * @param y       中心点Y坐标
+     * @param session 动画所属的拖动，为空时不属于任何拖动
+     * @return true 开始播放，false 播放失败
+     */
+    private boolean playDisappearAnimation(float x, float y,
+                                           @Nullable Animator.AnimatorListener listener,
+                                           @Nullable DragSession session) {
+
+        DisappearAnimator disappearAnimator = buildDisappearAnimator(x, y, session);
+        if (disappearAnimator == null) {
+            setDrawSelf(true);
+            return false;
+        }
+        DisappearAnimatorSet disappearAnimatorSet =
+                DraggableManager.getInstance().obtainDisappearAnimatorSet();
+
+        if (listener != null) {
+            disappearAnimatorSet.addListener(listener);
+        }
+        disappearAnimatorSet.addListener(this);
+        DisappearAnimatorSet.Builder builder = disappearAnimatorSet.play(disappearAnimator);
+        GeometryPass geometryPass = DraggableManager.getInstance().obtainGeometryPass();
+        FollowerLod followerLod = DraggableManager.getInstance().obtainFollowerLod();
+        recursiveSubordinate(this, builder, session, geometryPass, followerLod);
+        //位置计算持有跟随视图与其祖先，用完立即清除
+        geometryPass.clear();
+        //先确定简化的跟随视图，再按最终的动画数量压缩间隔
+        followerLod.apply(this, builder, disappearAnimatorSet);
+        compressTrailing(disappearAnimatorSet);
+
+        if (session == null && !DraggableManager.getInstance()
+                .hostDisappearAnimation(mView, disappearAnimatorSet)) {
+            setDrawSelf(true);
+            return false;
+        }
+        disappearAnimatorSet.start();
+        return true;
+    }
+
+    private DisappearAnimator buildDisappearAnimator(float x, float y,
+                                                     @Nullable DragSession session) {
+        if (!checkDisappearAnimation()) {
+            return null;
+        }
+        //不属于拖动的动画稍后再决定在overlay还是遮罩中绘制
+        DisappearAnimator disappearAnimator = session != null ?
+                DraggableManager.getInstance().newDisappearAnimation(mView, session) :
+                DraggableManager.getInstance().obtainDisappearAnimator(mView.getContext());
+        if (disappearAnimator == null) {
+            return null;
+        }
+
+        Rect rect = getDisappearAnimationRect(x, y);
+        disappearAnimator.setDuration(mDisappearAnimationDuration);
+        if (mDisappearMode == DraggableView.DisappearMode.PARTICLES) {
+            disappearAnimator.setParticles(mDraggableBezierColor, mDisappearParticleCount);
+        } else {
+            disappearAnimator.setDisappear(mDisappearAnimationArrayId, mDisappearAnimationArray,
+                    mDisappearAnimationTint);
+        }
+        disappearAnimator.addRect(rect);
+        return disappearAnimator;
+    }
+
+    /**
+     * 检查销毁动画是否有效
+     *
+     * @return true 销毁动画有效，false 销毁动画无效
+     */
+    private boolean checkDisappearAnimation() {
+        if (mDisappearAnimationDuration <= 0 || mDisappearAnimationHalfSize <= 0) {
+            return false;
+        }
+        if (mDisappearMode == DraggableView.DisappearMode.PARTICLES) {
+            return mDisappearParticleCount > 0;
+        }
+        return mDisappearAnimationArray != null && mDisappearAnimationArray.length != 0;
+    }
+
+    /**
+     * 尾随消失的总时长超过{@link DraggableManager#getMaxTrailingDuration()}时，
+     * 缩短相邻消失动画开始的间隔，使其重叠播放，每个消失动画的时长不变
+     */
+    private void compressTrailing(DisappearAnimatorSet disappearAnimatorSet) {
+        long maxTrailingDuration = DraggableManager.getInstance().getMaxTrailingDuration();
+        List<DisappearAnimator> animators = disappearAnimatorSet.getChildAnimators();
+        int count = animators.size();
+        if (maxTrailingDuration <= 0 || count <= 1
+                || disappearAnimatorSet.getTotalDuration() <= maxTrailingDuration) {
+            return;
+        }
+        long duration = disappearAnimatorSet.getDuration();
+        if (duration < 0) {
+            for (int i = 0; i < count; i++) {
+                duration = Math.max(duration, animators.get(i).getDuration());
+            }
+        }
+        //单个动画已超过总时长时全部同时播放
+        long stagger = Math.max(0, (maxTrailingDuration - duration) / (count - 1));
+        disappearAnimatorSet.setStagger(stagger);
+    }
+
+    /**
+     * 返回的区域会被复用，{@link DisappearAnimator#addRect(Rect)}会复制该区域
+     */
+    @NonNull
+    Rect getDisappearAnimationRect(float centerX, float centerY) {
+        mDisappearAnimationRect.set((int) (centerX - mDisappearAnimationHalfSize),
+                (int) (centerY - mDisappearAnimationHalfSize),
+                (int) (centerX + mDisappearAnimationHalfSize),
+                (int) (centerY + mDisappearAnimationHalfSize));
+        return mDisappearAnimationRect;
+    }
+
+    /**
+     * 递归获取所有的跟随视图
+     *
+     * @param draggableHelper 主视图
+     * @param builder       动画
+     * @param session       动画所属的拖动
+     * @param geometryPass  所有跟随视图共享的位置计算
+     * @param followerLod   跟随视图的细节层级
+     */
+    private void recursiveSubordinate(DraggableHelper draggableHelper,
+                                      DisappearAnimatorSet.Builder builder,
+                                      @Nullable DragSession session,
+                                      GeometryPass geometryPass,
+                                      FollowerLod followerLod) {
+        if (draggableHelper.isFollowDisappearEnable() && !TextUtils.isEmpty(draggableHelper.getMark())) {
+            DraggableView.FollowMode followMode = draggableHelper.getFollowMode();
+            List<DraggableViewWeakReference> draggableHelperWeakReferenceList =
+                    draggableHelper.mSubordinateList;
+            if (draggableHelperWeakReferenceList.isEmpty()) {
+                return;
+            }
+            Collections.sort(draggableHelperWeakReferenceList);
+            for (DraggableViewWeakReference draggableHelperWeakReference :
+                    draggableHelperWeakReferenceList) {
+                DraggableHelper subDraggableHelper = draggableHelperWeakReference.get();
+                if (subDraggableHelper != null) {
+                    int index = geometryPass.measure(subDraggableHelper.getView());
+                    if (index >= 0) {
+                        Rect viewRect = mGeometryRect;
+                        geometryPass.getRect(index, viewRect);
+                        subDraggableHelper.mAnchorCenterX = viewRect.exactCenterX();
+                        subDraggableHelper.mAnchorCenterY = viewRect.exactCenterY();
+                        boolean detailed = followerLod.addFollower(subDraggableHelper, viewRect);
+                        if (detailed && followMode == DraggableView.FollowMode.SIMULTANEOUSLY) {
+                            builder.with(subDraggableHelper.getDisappearAnimationRect(
+                                    subDraggableHelper.mAnchorCenterX,
+                                    subDraggableHelper.mAnchorCenterY));
+                            builder.addListener(subDraggableHelper);
+                        } else if (detailed && followMode == DraggableView.FollowMode.TRAILING) {
+                            DisappearAnimator disappearAnimator =
+                                    subDraggableHelper.buildDisappearAnimator(
+                                            subDraggableHelper.mAnchorCenterX,
+                                            subDraggableHelper.mAnchorCenterY, session);
+                            if (disappearAnimator != null) {
+                                Picture picture = builder.obtainPlaceholderPicture();
+                                if (subDraggableHelper.recordVisiblePicture(picture)) {
+                                    builder.addPlaceholder(viewRect, picture, disappearAnimator);
+                                } else {
+                                    builder.recyclePlaceholderPicture(picture);
+                                }
+                                builder.before(disappearAnimator);
+                                builder.addListener(subDraggableHelper);
+                            }
+                        }
+                    }
+                    recursiveSubordinate(subDraggableHelper, builder, session, geometryPass,
+                            followerLod);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        setDrawSelf(false);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        setDrawSelf(true);
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+
+    }
+
+    @Override
+    public void onAnimationRepeat(Animator animation) {
+
+    }
+
+}
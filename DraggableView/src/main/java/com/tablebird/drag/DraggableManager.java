@@ -1,35 +1,353 @@
 package com.tablebird.drag;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.annotation.TargetApi;
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Picture;
-import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
 import android.text.TextUtils;
+import android.view.Choreographer;
 import android.view.View;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.util.Pools;
+import androidx.core.view.ViewCompat;
 
 import com.tablebird.drag.animation.DampingAnimator;
 import com.tablebird.drag.animation.DisappearAnimator;
+import com.tablebird.drag.animation.DisappearAnimatorSet;
 import com.tablebird.drag.ref.DraggableViewWeakReference;
+import com.tablebird.drag.ref.FrameSetRegistry;
+import com.tablebird.drag.ref.WeakDrawableCache;
+import com.tablebird.drag.ref.WeakMarkTrie;
 
-import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author tablebird
  * @date 2018/1/7
  */
 
-class DraggableManager {
+public class DraggableManager {
+
+    /**
+     * 拖拽遮罩的承载方式
+     */
+    public enum CoverMode {
+
+        /**
+         * 添加到根视图，窗口中第一次拖动时会引起根视图重新布局
+         */
+        ROOT_VIEW,
+
+        /**
+         * 通过{@link android.view.WindowManager}添加到依附于Activity的子窗口，
+         * 不会影响应用的布局，无法添加时退回{@link #ROOT_VIEW}
+         */
+        PANEL_WINDOW
+    }
+
+    /**
+     * 遮罩的渲染质量，由高到低逐级降低，每一级包含之前所有级别的降级
+     */
+    public enum RenderQuality {
+
+        /**
+         * 完整质量
+         */
+        FULL,
+
+        /**
+         * 贝塞尔曲线不抗锯齿
+         */
+        NO_ANTI_ALIAS,
+
+        /**
+         * 颈部使用直线代替曲线
+         */
+        SIMPLE_NECK,
+
+        /**
+         * 消失动画帧率减半
+         */
+        HALF_FRAME_RATE,
+
+        /**
+         * 不绘制尾随消失的占位图
+         */
+        NO_PLACEHOLDER
+    }
+
+    /**
+     * 超过完整动画数量的跟随视图使用的消失效果
+     */
+    public enum FollowerEffect {
+
+        /**
+         * 与其他跟随视图相同，播放完整的消失动画
+         */
+        EXPLOSION,
+
+        /**
+         * 所有超出的跟随视图共享一个爆炸，位置为其中心点的平均值
+         */
+        SHARED_BURST,
+
+        /**
+         * 只淡出，不播放爆炸
+         */
+        FADE
+    }
+
+    /**
+     * 默认不简化，所有跟随视图都播放完整的消失动画
+     */
+    private static final int DEFAULT_MAX_DETAILED_FOLLOWERS = Integer.MAX_VALUE;
+
+    private int mMaxDetailedFollowers = DEFAULT_MAX_DETAILED_FOLLOWERS;
+
+    private FollowerEffect mFollowerEffect = FollowerEffect.EXPLOSION;
+
+    /**
+     * 尾随消失的最长总时长，单位ms，小于等于0时不限制
+     */
+    private long mMaxTrailingDuration;
+
+    private final FollowerLod mFollowerLod = new FollowerLod();
+
+    private CoverMode mCoverMode = CoverMode.ROOT_VIEW;
+
+    private final QualityGovernor mQualityGovernor = new QualityGovernor();
+
+    private boolean mBoundedCover;
+
+    private static final long DEFAULT_COVER_IDLE_TIMEOUT = 10000;
+
+    /**
+     * 遮罩空闲多久后从窗口中移除，单位ms，小于等于0时一直保留
+     */
+    private long mCoverIdleTimeout = DEFAULT_COVER_IDLE_TIMEOUT;
+
+    /**
+     * 遮罩渲染比例，按设备自动选择
+     */
+    public static final float RENDER_SCALE_AUTO = 0;
+
+    /**
+     * 自动选择时低内存设备使用的渲染比例
+     */
+    private static final float LOW_RAM_RENDER_SCALE = 0.5f;
+
+    private float mCoverRenderScale = RENDER_SCALE_AUTO;
 
     private WeakHashMap<Context, Map<String, DraggableViewWeakReference>> mDraggableViewWeakHashMap = new WeakHashMap<>();
 
-    private WeakReference<DraggableCover> mCurrentDraggableCoverWeakReference;
+    /**
+     * 标记前缀索引，用于按组查找视图
+     */
+    private WeakHashMap<Context, WeakMarkTrie<DraggableHelper>> mMarkTrieWeakHashMap =
+            new WeakHashMap<>();
+
+    /**
+     * 每个窗口的拖拽遮罩，按窗口令牌保存，窗口移除时释放
+     */
+    private final HashMap<IBinder, DraggableCover> mDraggableCovers = new HashMap<>();
+
+    /**
+     * 待应用的计数，按调用顺序排列，在主线程合并后应用
+     */
+    private final ConcurrentLinkedQueue<PendingCount> mPendingCounts =
+            new ConcurrentLinkedQueue<>();
+
+    /**
+     * 主线程合并计数使用的临时表，同一标记只保留最后一次
+     */
+    private final HashMap<String, Integer> mMergedCounts = new HashMap<>();
+
+    /**
+     * 应用时已注册但未附加到窗口的视图的计数，视图附加到窗口时应用，
+     * 直接设置视图计数或内存不足时丢弃
+     */
+    private final HashMap<String, Integer> mDeferredCounts = new HashMap<>();
+
+    /**
+     * 按标记保存的跟随计数，领导者的从属计数变化时刷新该标记所有视图的计数文本
+     */
+    private final CountTree mCountTree = new CountTree(
+            new CountTree.OnSubordinateCountChangedListener() {
+                @Override
+                public void onSubordinateCountChanged(@NonNull String mark) {
+                    for (Map<String, DraggableViewWeakReference> weakHashMap :
+                            mDraggableViewWeakHashMap.values()) {
+                        DraggableViewWeakReference draggableViewWeakReference =
+                                weakHashMap.get(mark);
+                        DraggableHelper draggableHelper = draggableViewWeakReference != null ?
+                                draggableViewWeakReference.get() : null;
+                        if (draggableHelper != null) {
+                            draggableHelper.onSubordinateCountChanged();
+                        }
+                    }
+                }
+            });
+
+    /**
+     * 应用计数的帧回调，只在主线程创建一次
+     */
+    private Choreographer.FrameCallback mApplyCountsFrameCallback;
+
+    /**
+     * 是否已安排在下一帧应用计数
+     */
+    private final AtomicBoolean mCountsScheduled = new AtomicBoolean(false);
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private static final int DISAPPEAR_ANIMATOR_POOL_SIZE = 8;
+    private static final int DISAPPEAR_ANIMATOR_SET_POOL_SIZE = 2;
+    private static final int DAMPING_ANIMATOR_POOL_SIZE = 2;
+    private static final int PICTURE_POOL_SIZE = 2;
+
+    private final Pools.SimplePool<DisappearAnimator> mDisappearAnimatorPool =
+            new Pools.SimplePool<>(DISAPPEAR_ANIMATOR_POOL_SIZE);
+    private final Pools.SimplePool<DisappearAnimatorSet> mDisappearAnimatorSetPool =
+            new Pools.SimplePool<>(DISAPPEAR_ANIMATOR_SET_POOL_SIZE);
+    private final Pools.SimplePool<DampingAnimator> mDampingAnimatorPool =
+            new Pools.SimplePool<>(DAMPING_ANIMATOR_POOL_SIZE);
+    private final Pools.SimplePool<Picture> mPicturePool =
+            new Pools.SimplePool<>(PICTURE_POOL_SIZE);
+
+    private final GeometryPass mGeometryPass = new GeometryPass();
+
+    /**
+     * 等待回收的动画，在监听分发结束后统一回收
+     */
+    private final ArrayList<Animator> mRecycleAnimators = new ArrayList<>();
+
+    private boolean mRecyclePosted;
+
+    private final Runnable mRecycleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mRecyclePosted = false;
+            for (Animator animator : mRecycleAnimators) {
+                recycle(animator);
+            }
+            mRecycleAnimators.clear();
+        }
+    };
+
+    private final Animator.AnimatorListener mRecycleListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (!mRecycleAnimators.contains(animation)) {
+                mRecycleAnimators.add(animation);
+            }
+            if (!mRecyclePosted) {
+                mRecyclePosted = true;
+                mMainHandler.post(mRecycleRunnable);
+            }
+        }
+    };
+
+    /**
+     * 已监听的窗口根视图与其窗口令牌，窗口移除时释放遮罩与对象池
+     */
+    private final WeakHashMap<View, IBinder> mWatchedRootViews = new WeakHashMap<>();
+
+    private final View.OnAttachStateChangeListener mWindowStateListener =
+            new View.OnAttachStateChangeListener() {
+                @Override
+                public void onViewAttachedToWindow(View v) {
+                }
+
+                @Override
+                public void onViewDetachedFromWindow(View v) {
+                    v.removeOnAttachStateChangeListener(this);
+                    IBinder windowToken = mWatchedRootViews.remove(v);
+                    DraggableCover draggableCover = mDraggableCovers.remove(windowToken);
+                    if (draggableCover != null) {
+                        draggableCover.release();
+                    }
+                    releasePools();
+                    if (isAllCoversIdle()) {
+                        WeakDrawableCache.clean();
+                        FrameSetRegistry.clean();
+                    }
+                }
+            };
+
+    /**
+     * 是否已注册内存回调
+     */
+    private boolean mComponentCallbacksRegistered;
+
+    private final ComponentCallbacks2 mComponentCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+    };
+
+    private final Runnable mScheduleCountsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                if (mApplyCountsFrameCallback == null) {
+                    mApplyCountsFrameCallback = new ApplyCountsFrameCallback();
+                }
+                Choreographer.getInstance().postFrameCallback(mApplyCountsFrameCallback);
+            } else {
+                applyPendingCounts();
+            }
+        }
+    };
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class ApplyCountsFrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            applyPendingCounts();
+        }
+    }
+
+    /**
+     * 一次计数更新
+     */
+    private static class PendingCount {
+        final String mMark;
+        final int mCount;
+
+        PendingCount(String mark, int count) {
+            mMark = mark;
+            mCount = count;
+        }
+    }
 
-    static DraggableManager getInstance() {
+    public static DraggableManager getInstance() {
         return Hold.INSTANCE;
     }
 
@@ -40,8 +358,8 @@ class DraggableManager {
     private DraggableManager() {
     }
 
-    void encaseDraggableView(String oldMark, DraggableView draggableView) {
-        Context context = draggableView.getContext();
+    void encaseDraggableView(String oldMark, DraggableHelper draggableHelper) {
+        Context context = draggableHelper.getView().getContext();
         if (!mDraggableViewWeakHashMap.containsKey(context)) {
             mDraggableViewWeakHashMap.put(context, new HashMap<String,
                     DraggableViewWeakReference>());
@@ -53,22 +371,205 @@ class DraggableManager {
             weakHashMap = new HashMap<>();
             mDraggableViewWeakHashMap.put(context, weakHashMap);
         }
+        WeakMarkTrie<DraggableHelper> markTrie = mMarkTrieWeakHashMap.get(context);
+        if (markTrie == null) {
+            markTrie = new WeakMarkTrie<>();
+            mMarkTrieWeakHashMap.put(context, markTrie);
+        }
         if (!TextUtils.isEmpty(oldMark)) {
             weakHashMap.remove(oldMark);
+            markTrie.remove(oldMark);
         }
-        String mark = draggableView.getMark();
+        String mark = draggableHelper.getMark();
         if (!TextUtils.isEmpty(mark)) {
             DraggableViewWeakReference draggableViewWeakReference = weakHashMap.remove(mark);
             if (draggableViewWeakReference != null && draggableViewWeakReference.get() != null) {
-                draggableViewWeakReference.get().handoverSubordinate(draggableView);
+                draggableViewWeakReference.get().handoverSubordinate(draggableHelper);
             }
-            weakHashMap.put(mark, new DraggableViewWeakReference(draggableView));
+            weakHashMap.put(mark, new DraggableViewWeakReference(draggableHelper));
+            markTrie.put(mark, draggableHelper);
+            applyDeferredCount(draggableHelper);
         }
     }
 
+    /**
+     * 获取标记以指定前缀开头的所有存活视图
+     *
+     * @param context 视图所在的Context
+     * @param prefix  标记前缀，例如"chat:"
+     * @return 视图列表
+     */
+    @NonNull
+    public List<DraggableHelper> findGroup(@NonNull Context context, @NonNull String prefix) {
+        List<DraggableHelper> draggableHelpers = new ArrayList<>();
+        WeakMarkTrie<DraggableHelper> markTrie = mMarkTrieWeakHashMap.get(context);
+        if (markTrie != null) {
+            markTrie.collect(prefix, draggableHelpers);
+        }
+        return draggableHelpers;
+    }
+
+    /**
+     * 销毁标记以指定前缀开头的所有可见视图
+     *
+     * @param context  视图所在的Context
+     * @param prefix   标记前缀，例如"chat:"
+     * @param listener 每个视图的消失动画监听
+     * @return 开始播放消失动画的视图数量
+     */
+    public int dismissGroup(@NonNull Context context, @NonNull String prefix,
+                            @Nullable Animator.AnimatorListener listener) {
+        int count = 0;
+        for (DraggableHelper draggableHelper : findGroup(context, prefix)) {
+            if (draggableHelper.playDisappearAnimation(listener)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 设置单个视图的计数，可在任意线程调用
+     *
+     * @param mark  视图标记
+     * @param count 计数，非负整数
+     * @see #setCounts(Map)
+     */
+    public void setCount(@NonNull String mark, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be less than 0");
+        }
+        mPendingCounts.offer(new PendingCount(mark, count));
+        scheduleApplyCounts();
+    }
+
+    /**
+     * 批量设置视图计数，可在任意线程调用，写入无锁队列不会阻塞。
+     * 同一标记的多次更新会被合并，在主线程的下一帧统一应用，计数未变化的视图会被跳过，
+     * 未附加到窗口的视图保留最后一次计数，附加到窗口时再应用。
+     * 已通过{@link #setLeaderMark(String, String)}或视图设置了领导的标记，即使没有视图也计入领导者的计数，
+     * 其他没有对应视图的标记直接忽略
+     *
+     * @param counts 标记与计数
+     */
+    public void setCounts(@NonNull Map<String, Integer> counts) {
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            Integer count = entry.getValue();
+            if (entry.getKey() == null || count == null) {
+                continue;
+            }
+            if (count < 0) {
+                throw new IllegalArgumentException("Count cannot be less than 0");
+            }
+            mPendingCounts.offer(new PendingCount(entry.getKey(), count));
+        }
+        scheduleApplyCounts();
+    }
+
+    private void scheduleApplyCounts() {
+        if (!mPendingCounts.isEmpty() && mCountsScheduled.compareAndSet(false, true)) {
+            mMainHandler.post(mScheduleCountsRunnable);
+        }
+    }
+
+    /**
+     * 在主线程应用所有待处理的计数
+     */
+    private void applyPendingCounts() {
+        mCountsScheduled.set(false);
+        PendingCount pendingCount;
+        while ((pendingCount = mPendingCounts.poll()) != null) {
+            mMergedCounts.put(pendingCount.mMark, pendingCount.mCount);
+        }
+        for (Map.Entry<String, Integer> entry : mMergedCounts.entrySet()) {
+            String mark = entry.getKey();
+            int count = entry.getValue();
+            mCountTree.setCount(mark, count);
+            //只为已注册但未附加到窗口的视图保留计数，没有视图的标记直接跳过
+            boolean detached = false;
+            for (Map<String, DraggableViewWeakReference> weakHashMap :
+                    mDraggableViewWeakHashMap.values()) {
+                DraggableViewWeakReference draggableViewWeakReference = weakHashMap.get(mark);
+                DraggableHelper draggableHelper = draggableViewWeakReference != null ?
+                        draggableViewWeakReference.get() : null;
+                if (draggableHelper == null) {
+                    continue;
+                }
+                if (!ViewCompat.isAttachedToWindow(draggableHelper.getView())) {
+                    detached = true;
+                    continue;
+                }
+                if (draggableHelper.getCount() != count) {
+                    draggableHelper.setCount(count);
+                }
+            }
+            if (detached) {
+                mDeferredCounts.put(mark, count);
+            } else {
+                mDeferredCounts.remove(mark);
+            }
+        }
+        mMergedCounts.clear();
+    }
+
+    /**
+     * 视图附加到窗口或更换标记时，应用之前因未附加而保留的计数
+     */
+    void applyDeferredCount(@NonNull DraggableHelper draggableHelper) {
+        String mark = draggableHelper.getMark();
+        if (mDeferredCounts.isEmpty() || TextUtils.isEmpty(mark)
+                || !ViewCompat.isAttachedToWindow(draggableHelper.getView())) {
+            return;
+        }
+        Integer count = mDeferredCounts.remove(mark);
+        if (count != null && draggableHelper.getCount() != count) {
+            draggableHelper.setCount(count);
+        }
+    }
+
+    /**
+     * 视图的计数被直接设置，丢弃之前保留的计数，避免附加到窗口时被旧值覆盖
+     */
+    void discardDeferredCount(@Nullable String mark) {
+        if (!mDeferredCounts.isEmpty() && !TextUtils.isEmpty(mark)) {
+            mDeferredCounts.remove(mark);
+        }
+    }
+
+    /**
+     * 按标记设置领导关系，用于列表中还没有视图或视图已被回收的行，
+     * 该标记的计数在没有视图时仍计入领导者的计数，只在主线程调用
+     *
+     * @param mark       跟随标记
+     * @param leaderMark 领导标记，为空时取消领导关系，领导者的计数减去该标记的计数
+     * @see #setCount(String, int)
+     */
+    public void setLeaderMark(@NonNull String mark, @Nullable String leaderMark) {
+        int count = mCountTree.getCount(mark);
+        if (mCountTree.getLeaderMark(mark) == null) {
+            //第一次加入领导关系，使用已注册视图的计数
+            for (Map<String, DraggableViewWeakReference> weakHashMap :
+                    mDraggableViewWeakHashMap.values()) {
+                DraggableViewWeakReference draggableViewWeakReference = weakHashMap.get(mark);
+                DraggableHelper draggableHelper = draggableViewWeakReference != null ?
+                        draggableViewWeakReference.get() : null;
+                if (draggableHelper != null) {
+                    count = draggableHelper.getCount();
+                    break;
+                }
+            }
+        }
+        mCountTree.setLeader(mark, TextUtils.isEmpty(leaderMark) ? null : leaderMark, count);
+    }
+
+    @NonNull
+    CountTree getCountTree() {
+        return mCountTree;
+    }
+
     @Nullable
-    DraggableView findLeader(DraggableView draggableView) {
-        Context context = draggableView.getContext();
+    DraggableHelper findLeader(DraggableHelper draggableHelper) {
+        Context context = draggableHelper.getView().getContext();
         if (mDraggableViewWeakHashMap.containsKey(context)) {
             Map<String, DraggableViewWeakReference> weakHashMap =
                     mDraggableViewWeakHashMap.get(context);
@@ -76,7 +577,7 @@ class DraggableManager {
                 weakHashMap = new HashMap<>();
                 mDraggableViewWeakHashMap.put(context, weakHashMap);
             }
-            String leaderMark = draggableView.getLeaderMark();
+            String leaderMark = draggableHelper.getLeaderMark();
             if (weakHashMap.containsKey(leaderMark)) {
                 DraggableViewWeakReference draggableViewWeakReference = weakHashMap.get(leaderMark);
                 return draggableViewWeakReference != null ? draggableViewWeakReference.get() : null;
@@ -87,63 +588,439 @@ class DraggableManager {
 
 
     /**
-     * 是否正在绘制
+     * 获取拖拽遮罩的承载方式 {@link CoverMode}
      *
-     * @return true 锁定成功,false 锁定失败
+     * @return {@link CoverMode}
      */
-    boolean lockDraw(View view) {
-        if (mCurrentDraggableCoverWeakReference == null || mCurrentDraggableCoverWeakReference.get() == null) {
-            mCurrentDraggableCoverWeakReference = new WeakReference<>(new DraggableCover(view));
-            return true;
-        } else {
-            DraggableCover draggableCover = mCurrentDraggableCoverWeakReference.get();
-            if (draggableCover.getParent() == null) {
-                draggableCover.attachedToWindow(view);
-                return true;
+    @NonNull
+    public CoverMode getCoverMode() {
+        return mCoverMode;
+    }
+
+    /**
+     * 设置拖拽遮罩的承载方式 {@link CoverMode}，对之后新建遮罩的窗口生效
+     *
+     * @param coverMode {@link CoverMode}
+     */
+    public void setCoverMode(@Nullable CoverMode coverMode) {
+        mCoverMode = coverMode != null ? coverMode : CoverMode.ROOT_VIEW;
+    }
+
+    /**
+     * 设置跟随视图的细节层级，前maxDetailedFollowers个可见的跟随视图播放完整的消失动画，
+     * 之后的跟随视图使用followerEffect，默认不限制数量
+     *
+     * @param maxDetailedFollowers 播放完整消失动画的最多跟随视图数量
+     * @param followerEffect       超出的跟随视图使用的效果 {@link FollowerEffect}
+     */
+    public void setFollowerLod(int maxDetailedFollowers, @NonNull FollowerEffect followerEffect) {
+        if (maxDetailedFollowers < 0) {
+            throw new IllegalArgumentException("maxDetailedFollowers cannot be less than 0");
+        }
+        mMaxDetailedFollowers = maxDetailedFollowers;
+        mFollowerEffect = followerEffect;
+    }
+
+    public int getMaxDetailedFollowers() {
+        return mMaxDetailedFollowers;
+    }
+
+    @NonNull
+    public FollowerEffect getFollowerEffect() {
+        return mFollowerEffect;
+    }
+
+    /**
+     * 设置尾随消失的最长总时长，超出时缩短相邻消失动画开始的间隔，每个消失动画的时长不变
+     *
+     * @param maxTrailingDuration 最长总时长，单位ms，小于等于0时不限制
+     */
+    public void setMaxTrailingDuration(long maxTrailingDuration) {
+        mMaxTrailingDuration = maxTrailingDuration;
+    }
+
+    public long getMaxTrailingDuration() {
+        return mMaxTrailingDuration;
+    }
+
+    /**
+     * 获取一次销毁使用的细节层级，每次获取都会清除上一次的结果，只能在主线程使用
+     */
+    @NonNull
+    FollowerLod obtainFollowerLod() {
+        mFollowerLod.reset(mMaxDetailedFollowers, mFollowerEffect);
+        return mFollowerLod;
+    }
+
+    /**
+     * 获取遮罩当前的渲染质量，未固定时随绘制耗时自动调整
+     *
+     * @return {@link RenderQuality}
+     */
+    @NonNull
+    public RenderQuality getRenderQuality() {
+        return mQualityGovernor.getQuality();
+    }
+
+    /**
+     * 固定遮罩的渲染质量
+     *
+     * @param renderQuality {@link RenderQuality}，为空时按每帧绘制耗时与刷新周期自动调整
+     */
+    public void setRenderQuality(@Nullable RenderQuality renderQuality) {
+        mQualityGovernor.setFixedQuality(renderQuality);
+    }
+
+    @NonNull
+    QualityGovernor getQualityGovernor() {
+        return mQualityGovernor;
+    }
+
+    /**
+     * 遮罩是否只使用拖动所需的区域
+     *
+     * @return true 限定区域，false 覆盖整个窗口
+     */
+    public boolean isBoundedCover() {
+        return mBoundedCover;
+    }
+
+    /**
+     * 设置遮罩是否只使用拖动所需的区域，对之后新建遮罩的窗口生效。
+     * 限定区域时surface的大小由原位置、最远拖动距离与消失动画大小决定，拖动时只移动位置，
+     * 可以大幅减少大屏幕上的缓冲区内存与填充开销
+     *
+     * @param boundedCover true 限定区域，false 覆盖整个窗口
+     */
+    public void setBoundedCover(boolean boundedCover) {
+        mBoundedCover = boundedCover;
+    }
+
+    /**
+     * 获取遮罩的空闲超时
+     *
+     * @return 空闲超时，单位ms，小于等于0时一直保留
+     */
+    public long getCoverIdleTimeout() {
+        return mCoverIdleTimeout;
+    }
+
+    /**
+     * 设置遮罩空闲多久后从窗口中移除，下次拖动时重新创建。
+     * 遮罩是置于顶层的surface，保留时即使画面已清空仍占用缓冲区并参与合成
+     *
+     * @param coverIdleTimeout 空闲超时，单位ms，小于等于0时一直保留到窗口移除
+     */
+    public void setCoverIdleTimeout(long coverIdleTimeout) {
+        mCoverIdleTimeout = coverIdleTimeout;
+    }
+
+    /**
+     * 获取遮罩的渲染比例
+     *
+     * @return 渲染比例，或{@link #RENDER_SCALE_AUTO}
+     */
+    public float getCoverRenderScale() {
+        return mCoverRenderScale;
+    }
+
+    /**
+     * 设置遮罩的渲染比例，对之后新建遮罩的窗口生效。
+     * 小于1时surface按比例缩小分辨率后再拉伸显示，用于GPU较弱的高分辨率设备
+     *
+     * @param coverRenderScale 渲染比例，(0, 1]，{@link #RENDER_SCALE_AUTO}时低内存设备使用0.5
+     */
+    public void setCoverRenderScale(float coverRenderScale) {
+        if (coverRenderScale < 0 || coverRenderScale > 1) {
+            throw new IllegalArgumentException("coverRenderScale should be in (0, 1]");
+        }
+        mCoverRenderScale = coverRenderScale;
+    }
+
+    /**
+     * 获取遮罩实际使用的渲染比例
+     */
+    float resolveCoverRenderScale(@NonNull Context context) {
+        if (mCoverRenderScale != RENDER_SCALE_AUTO) {
+            return mCoverRenderScale;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            ActivityManager activityManager =
+                    (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            if (activityManager != null && activityManager.isLowRamDevice()) {
+                return LOW_RAM_RENDER_SCALE;
             }
         }
-        return false;
+        return 1;
     }
 
+    /**
+     * 开始一次拖动，同一窗口中的多个手指可以同时拖动，共享同一个遮罩
+     *
+     * @param view      拖动的视图
+     * @param pointerId 拖动的手指ID
+     * @return 拖动，无法开始时为空
+     */
     @Nullable
-    DisappearAnimator newDisappearAnimation() {
-        if (checkDraggableCover()) {
+    DragSession lockDraw(View view, int pointerId) {
+        DraggableCover draggableCover = obtainCover(view);
+        if (draggableCover == null) {
             return null;
         }
-        return mCurrentDraggableCoverWeakReference.get().newDisappearAnimator();
+        return draggableCover.newSession(pointerId);
     }
 
+    /**
+     * 获取视图所在窗口的遮罩，第一次使用时创建，之后该窗口中的拖动都复用同一个遮罩
+     *
+     * @param view 窗口中的视图
+     * @return 遮罩，视图未添加到窗口时为空
+     */
     @Nullable
-    DampingAnimator newDampingAnimation() {
-        if (checkDraggableCover()) {
+    private DraggableCover obtainCover(View view) {
+        IBinder windowToken = view.getWindowToken();
+        if (windowToken == null) {
             return null;
         }
-        return mCurrentDraggableCoverWeakReference.get().newDampingAnimator();
+        DraggableCover draggableCover = mDraggableCovers.get(windowToken);
+        if (draggableCover == null) {
+            draggableCover = new DraggableCover(view);
+            mDraggableCovers.put(windowToken, draggableCover);
+            watchWindow(view.getRootView(), windowToken);
+            mQualityGovernor.updateFramePeriod(view.getContext());
+            registerComponentCallbacks(view.getContext());
+        }
+        return draggableCover;
     }
 
-
-    void start(@NonNull Picture picture, int draggableBezierColor, Rect rect) {
-        if (checkDraggableCover()) {
+    private void registerComponentCallbacks(Context context) {
+        if (mComponentCallbacksRegistered) {
             return;
         }
-        mCurrentDraggableCoverWeakReference.get().start(picture, draggableBezierColor, rect);
+        Context applicationContext = context.getApplicationContext();
+        if (applicationContext != null) {
+            applicationContext.registerComponentCallbacks(mComponentCallbacks);
+            mComponentCallbacksRegistered = true;
+        }
+    }
+
+    /**
+     * 按内存等级逐级释放：
+     * 前台内存紧张时释放对象池中的快照与动画，界面不可见时结束所有动画并清除帧缓存，
+     * 进入后台后移除空闲的遮罩，即将被回收时清除共享的样式配置
+     *
+     * @param level {@link ComponentCallbacks2}中的内存等级
+     */
+    void trimMemory(int level) {
+        mDeferredCounts.clear();
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            for (DraggableCover draggableCover : new ArrayList<>(mDraggableCovers.values())) {
+                draggableCover.finishAnimations();
+            }
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            Iterator<DraggableCover> iterator = mDraggableCovers.values().iterator();
+            while (iterator.hasNext()) {
+                DraggableCover draggableCover = iterator.next();
+                if (draggableCover.isIdle()) {
+                    iterator.remove();
+                    draggableCover.release();
+                }
+            }
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            releasePools();
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL && isAllCoversIdle()) {
+            WeakDrawableCache.clean();
+            FrameSetRegistry.clean();
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            DraggableConfig.clean();
+        }
+    }
+
+    /**
+     * 移除空闲超时的遮罩，动画帧缓存保留
+     */
+    void releaseIdleCover(@NonNull DraggableCover draggableCover) {
+        Iterator<DraggableCover> iterator = mDraggableCovers.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == draggableCover) {
+                iterator.remove();
+                break;
+            }
+        }
+        draggableCover.release();
+    }
+
+    private boolean isAllCoversIdle() {
+        for (DraggableCover draggableCover : mDraggableCovers.values()) {
+            if (!draggableCover.isIdle()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param view    播放动画的视图，用于确定所在窗口的遮罩
+     * @param session 动画所属的拖动，为空时不属于任何拖动
+     */
+    @Nullable
+    DisappearAnimator newDisappearAnimation(@NonNull View view, @Nullable DragSession session) {
+        DraggableCover draggableCover = session != null ? session.getCover() : obtainCover(view);
+        if (draggableCover == null || draggableCover.isReleased()) {
+            return null;
+        }
+        return draggableCover.newDisappearAnimator(mDisappearAnimatorPool.acquire(), session);
+    }
+
+    /**
+     * 获取尚未确定绘制位置的消失动画，由{@link #hostDisappearAnimation(View, DisappearAnimatorSet)}
+     * 决定在视图的overlay还是遮罩中绘制
+     *
+     * @param context 上下文
+     * @return 消失动画
+     */
+    @NonNull
+    DisappearAnimator obtainDisappearAnimator(@NonNull Context context) {
+        DisappearAnimator disappearAnimator = mDisappearAnimatorPool.acquire();
+        if (disappearAnimator == null) {
+            return new DisappearAnimator(context);
+        }
+        disappearAnimator.setSurface(context, null);
+        return disappearAnimator;
+    }
+
+    /**
+     * 为不属于拖动的消失动画选择绘制位置，动画区域在父视图范围内时在其overlay中绘制，
+     * 不需要创建遮罩，否则在视图所在窗口的遮罩中绘制
+     *
+     * @param view                 播放动画的视图
+     * @param disappearAnimatorSet 由{@link #obtainDisappearAnimator(Context)}获取的动画组成的集合
+     * @return true 可以播放，false 无法绘制，动画集合已回收
+     */
+    boolean hostDisappearAnimation(@NonNull View view,
+                                   @NonNull DisappearAnimatorSet disappearAnimatorSet) {
+        if (DisappearOverlay.host(view, disappearAnimatorSet)) {
+            return true;
+        }
+        DraggableCover draggableCover = obtainCover(view);
+        if (draggableCover == null || draggableCover.isReleased()) {
+            recycle(disappearAnimatorSet);
+            return false;
+        }
+        for (DisappearAnimator disappearAnimator : disappearAnimatorSet.getChildAnimators()) {
+            draggableCover.newDisappearAnimator(disappearAnimator, null);
+        }
+        return true;
     }
 
-    private boolean checkDraggableCover() {
-        return mCurrentDraggableCoverWeakReference == null || mCurrentDraggableCoverWeakReference.get() == null;
+    @Nullable
+    DampingAnimator newDampingAnimation(@NonNull DragSession session) {
+        DraggableCover draggableCover = session.getCover();
+        if (draggableCover.isReleased()) {
+            return null;
+        }
+        DampingAnimator dampingAnimator =
+                draggableCover.newDampingAnimator(mDampingAnimatorPool.acquire(), session);
+        dampingAnimator.addListener(mRecycleListener);
+        return dampingAnimator;
+    }
+
+    /**
+     * 获取消失动画集合，播放结束后自动回收
+     *
+     * @return 消失动画集合
+     */
+    @NonNull
+    DisappearAnimatorSet obtainDisappearAnimatorSet() {
+        DisappearAnimatorSet disappearAnimatorSet = mDisappearAnimatorSetPool.acquire();
+        if (disappearAnimatorSet == null) {
+            disappearAnimatorSet = new DisappearAnimatorSet();
+        }
+        disappearAnimatorSet.addListener(mRecycleListener);
+        return disappearAnimatorSet;
+    }
+
+    /**
+     * 获取跟随视图共享的位置计算，每次获取都会清除上一次的结果，只能在主线程使用，
+     * 使用后应调用{@link GeometryPass#clear()}释放视图引用
+     *
+     * @return 位置计算
+     */
+    @NonNull
+    GeometryPass obtainGeometryPass() {
+        mGeometryPass.clear();
+        return mGeometryPass;
     }
 
-    void update(Rect rect, float anchorRadius, boolean isExceedMaxDistance) {
-        if (checkDraggableCover()) {
+    /**
+     * 获取用于录制视图快照的{@link Picture}
+     *
+     * @return 可重新录制的Picture
+     */
+    @NonNull
+    Picture obtainPicture() {
+        Picture picture = mPicturePool.acquire();
+        return picture != null ? picture : new Picture();
+    }
+
+    void releasePicture(@NonNull Picture picture) {
+        try {
+            mPicturePool.release(picture);
+        } catch (IllegalStateException e) {
+            //已在对象池中
+        }
+    }
+
+    private void recycle(Animator animator) {
+        if (animator.isStarted()) {
             return;
         }
-        mCurrentDraggableCoverWeakReference.get().update(rect, anchorRadius, isExceedMaxDistance);
+        if (animator instanceof DisappearAnimatorSet) {
+            DisappearAnimatorSet disappearAnimatorSet = (DisappearAnimatorSet) animator;
+            for (DisappearAnimator disappearAnimator : disappearAnimatorSet.getChildAnimators()) {
+                disappearAnimator.reset();
+                mDisappearAnimatorPool.release(disappearAnimator);
+            }
+            disappearAnimatorSet.reset();
+            mDisappearAnimatorSetPool.release(disappearAnimatorSet);
+        } else if (animator instanceof DampingAnimator) {
+            animator.removeAllListeners();
+            mDampingAnimatorPool.release((DampingAnimator) animator);
+        }
     }
 
-    void stop(Rect rect, boolean canDraw) {
-        if (checkDraggableCover()) {
+    /**
+     * 监听窗口移除，以便释放遮罩与对象池
+     */
+    private void watchWindow(View rootView, IBinder windowToken) {
+        if (rootView == null || mWatchedRootViews.containsKey(rootView)) {
             return;
         }
-        mCurrentDraggableCoverWeakReference.get().stop(rect, canDraw);
+        mWatchedRootViews.put(rootView, windowToken);
+        rootView.addOnAttachStateChangeListener(mWindowStateListener);
+    }
+
+    /**
+     * 释放对象池中缓存的所有对象
+     */
+    void releasePools() {
+        while (mDisappearAnimatorPool.acquire() != null) {
+            //丢弃
+        }
+        while (mDisappearAnimatorSetPool.acquire() != null) {
+            //丢弃
+        }
+        while (mDampingAnimatorPool.acquire() != null) {
+            //丢弃
+        }
+        while (mPicturePool.acquire() != null) {
+            //丢弃
+        }
+        mGeometryPass.clear();
+        mDeferredCounts.clear();
     }
 }
@@ -2,35 +2,18 @@ package com.tablebird.drag;
 
 import android.animation.Animator;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Picture;
-import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
-import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ListView;
-import android.widget.ScrollView;
 
+import androidx.annotation.ArrayRes;
+import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.AppCompatTextView;
 
-import com.tablebird.drag.animation.DampingAnimator;
-import com.tablebird.drag.animation.DisappearAnimator;
-import com.tablebird.drag.animation.DisappearAnimatorSet;
-import com.tablebird.drag.element.TargetElement;
-import com.tablebird.drag.ref.DraggableViewWeakReference;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * @author tablebird
  * @date 2018/1/7
@@ -72,148 +55,31 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
     }
 
     /**
-     * 是否启用拖动
-     */
-    private boolean mDragEnable;
-
-    /**
-     * 是否启用跟随消失模式
-     */
-    private boolean mFollowDisappearEnable;
-
-    /**
-     * 跟随消失模式
-     */
-    private FollowMode mFollowMode = FollowMode.SIMULTANEOUSLY;
-
-    /**
-     * 最远距离
-     */
-    private int mMaxDistanceWeights;
-
-    /**
-     * 原位置圆的最小半径
-     */
-    private int mMinAnchorRadius;
-
-    /**
-     * 原位置圆的最爱半径
-     */
-    private int mMaxAnchorRadius;
-
-    /**
-     * 可以恢复距离
-     */
-    private int mCanRecoverDistance;
-
-    /**
-     * 标记当前{@link #onTouchEvent(MotionEvent)}可以处理拖动事件
-     */
-    private boolean mHolderEventFlag;
-
-    /**
-     * 消失动画
-     */
-    private int[] mDisappearAnimationArray;
-
-    /**
-     * 消失动画的持续时间
-     */
-    private int mDisappearAnimationDuration;
-
-    /**
-     * 消失动画的大小
-     */
-    private float mDisappearAnimationHalfSize;
-
-    /**
-     * 减震动画的持续时间
-     */
-    private int mDampingAnimationDuration;
-
-    /**
-     * 减震动画的回弹次数
-     */
-    private int mDampingAnimationCount;
-
-    /**
-     * 原位置中心X坐标
-     */
-    private float mAnchorCenterX;
-    /**
-     * 原位置中心Y坐标
-     */
-    private float mAnchorCenterY;
-
-    /**
-     * 拖动图标中心X坐标
-     */
-    private float mTargetCenterX;
-    /**
-     * 拖动图标中心Y坐标
-     */
-    private float mTargetCenterY;
-
-    /**
-     * 视图宽
-     */
-    private int mWidth;
-
-    /**
-     * 视图高
-     */
-    private int mHeight;
-
-    /**
-     * 点击事件与视图left的偏移量
+     * 消失动画模式
      */
-    private float mOffsetX;
+    public enum DisappearMode {
 
-    /**
-     * 点击事件与视图Top的偏移量
-     */
-    private float mOffsetY;
-
-    /**
-     * 是否已经超出最远距离
-     */
-    private boolean mIsExceedMaxDistance = false;
+        /**
+         * 帧动画
+         */
+        FRAMES,
 
-    /**
-     * 是否绘制自身，在拖动的过程中本视图会被隐藏
-     */
-    private boolean mDrawSelf;
+        /**
+         * 程序化粒子爆炸，颜色取自{@link #getDraggableBezierColor()}
+         */
+        PARTICLES
+    }
 
     /**
-     * 绘制拖拽动画的贝塞尔曲线的颜色
+     * 拖动、跟随消失与计数，与{@link DraggableBadgeView}共用
      */
-    private int mDraggableBezierColor;
+    private final DraggableHelper mHelper;
 
     /**
-     * 拖拽有效的监听
+     * 拖拽监听
      */
     private OnDragListener mOnDragListener;
 
-    /**
-     * 视图标记
-     */
-    private String mMark;
-
-    /**
-     * 领导视图标记
-     */
-    private String mLeaderMark;
-
-    /**
-     * 销毁排序字段
-     * 如果{@link #mFollowMode}为{@link FollowMode#TRAILING}，决定拖拽销毁时的销毁顺序，非负整数（大于等于0）
-     */
-    private int mSort = -1;
-    /**
-     * 从属视图
-     */
-    private List<DraggableViewWeakReference> mSubordinateList = new ArrayList<>();
-
     public DraggableView(Context context) {
         this(context, null);
     }
@@ -224,287 +90,83 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
 
     public DraggableView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.DraggableView,
-                defStyleAttr, R.style.DefaultDraggableViewStyle);
-
-        int count = typedArray.getIndexCount();
-        for (int i = 0; i < count; i++) {
-            int attr = typedArray.getIndex(i);
-            if (attr == R.styleable.DraggableView_draggableEnable) {
-                mDragEnable = typedArray.getBoolean(attr, mDragEnable);
-            } else if (attr == R.styleable.DraggableView_maxDragDistance) {
-                mMaxDistanceWeights = typedArray.getDimensionPixelSize(attr, mMaxDistanceWeights);
-            } else if (attr == R.styleable.DraggableView_canRecoverDistance) {
-                mCanRecoverDistance = typedArray.getDimensionPixelSize(attr, mCanRecoverDistance);
-            } else if (attr == R.styleable.DraggableView_minAnchorRadius) {
-                mMinAnchorRadius = typedArray.getDimensionPixelSize(attr, mMinAnchorRadius);
-                if (mMinAnchorRadius <= 0) {
-                    throw new IllegalArgumentException("minAnchorRadius should be greater than " +
-                            "zero");
+        mHelper = new DraggableHelper(this, attrs, defStyleAttr, new DraggableHelper.Callback() {
+            @Override
+            public boolean onSuperTouchEvent(MotionEvent event) {
+                return DraggableView.super.onTouchEvent(event);
+            }
+
+            @Override
+            public void onDragComplete() {
+                if (mOnDragListener != null) {
+                    mOnDragListener.onDragComplete(DraggableView.this);
                 }
-            } else if (attr == R.styleable.DraggableView_maxAnchorRadius) {
-                mMaxAnchorRadius = typedArray.getDimensionPixelSize(attr, mMaxAnchorRadius);
-                if (mMaxAnchorRadius <= 0) {
-                    throw new IllegalArgumentException("maxAnchorRadius should be greater than " +
-                            "zero");
+            }
+
+            @Override
+            public void onDisappearComplete() {
+                if (mOnDragListener != null) {
+                    mOnDragListener.onDisappearComplete(DraggableView.this);
                 }
-            } else if (attr == R.styleable.DraggableView_disappearAnimationArray) {
-                int explosionId = typedArray.getResourceId(attr, -1);
-                TypedArray explosionTypeArray =
-                        context.getResources().obtainTypedArray(explosionId);
-                setAnimationArray(explosionTypeArray);
-                explosionTypeArray.recycle();
-            } else if (attr == R.styleable.DraggableView_disappearAnimationDuration) {
-                mDisappearAnimationDuration = typedArray.getInt(attr, mDisappearAnimationDuration);
-            } else if (attr == R.styleable.DraggableView_disappearAnimationSize) {
-                mDisappearAnimationHalfSize = typedArray.getDimensionPixelSize(attr, -1) / 2.0f;
-            } else if (attr == R.styleable.DraggableView_draggableBezierColor) {
-                mDraggableBezierColor = typedArray.getColor(attr, mDraggableBezierColor);
-            } else if (attr == R.styleable.DraggableView_dampingAnimationDuration) {
-                mDampingAnimationDuration = typedArray.getInt(attr, mDampingAnimationDuration);
-            } else if (attr == R.styleable.DraggableView_dampingAnimationCount) {
-                mDampingAnimationCount = typedArray.getInt(attr, mDampingAnimationCount);
-            } else if (attr == R.styleable.DraggableView_followDisappearEnable) {
-                mFollowDisappearEnable = typedArray.getBoolean(attr, mFollowDisappearEnable);
-            } else if (attr == R.styleable.DraggableView_followDisappearMode) {
-                int index = typedArray.getInt(attr, mFollowMode.ordinal());
-                mFollowMode = FollowMode.values()[index];
             }
-        }
-        typedArray.recycle();
+
+            @Override
+            public void onTotalCountChanged(int totalCount) {
+                DraggableView.this.onTotalCountChanged(totalCount);
+            }
+        });
 
         Drawable drawable = getBackground();
         if (drawable == null) {
             setBackgroundResource(R.drawable.def_draggable_view_bg);
         }
-
-        calibrationCanRecoverDistance();
-
-        calibrationAnchorRadius();
-
-        mDrawSelf = true;
-    }
-
-    private void calibrationAnchorRadius() {
-        calibrationAnchorRadius(getWidth(), getHeight());
     }
 
-    private void calibrationAnchorRadius(int width, int height) {
-        if (mMaxAnchorRadius <= 0) {
-            if (width <= 0 || height <= 0) {
-                return;
-            }
-            mMaxAnchorRadius = (int) (width < height ? width / 2.0f : height / 2.0f);
-        }
-        if (mMinAnchorRadius <= 0 || mMinAnchorRadius >= mMaxAnchorRadius) {
-            mMinAnchorRadius = (int) (mMaxAnchorRadius * 0.4f);
-        }
-    }
-
-    private void calibrationCanRecoverDistance() {
-        if (mCanRecoverDistance > mMaxDistanceWeights) {
-            mCanRecoverDistance = mMaxDistanceWeights;
-        }
-    }
-
-    private void setAnimationArray(TypedArray explosionTypeArray) {
-        mDisappearAnimationArray = new int[explosionTypeArray.length()];
-        for (int i = 0; i < mDisappearAnimationArray.length; i++) {
-            mDisappearAnimationArray[i] = explosionTypeArray.getResourceId(i, 0);
-        }
+    /**
+     * 获取拖动、跟随消失与计数的实现，标记相同的拖拽视图共享同一份计数
+     *
+     * @return 拖拽实现
+     */
+    @NonNull
+    public DraggableHelper getDraggableHelper() {
+        return mHelper;
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
-        if (mDrawSelf) {
+        if (mHelper.isDrawSelf()) {
             super.onDraw(canvas);
         }
     }
 
     @Override
     public void draw(Canvas canvas) {
-        if (mDrawSelf) {
+        if (mHelper.isDrawSelf()) {
             super.draw(canvas);
         }
     }
 
     @Override
-    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-        super.onSizeChanged(w, h, oldw, oldh);
-        if (oldw <= 0 || oldh <= 0) {
-            calibrationAnchorRadius(w, h);
-        }
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mHelper.onAttachedToWindow();
     }
 
     @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        if (!mDragEnable) {
-            //拖动效果未开启
-            return super.onTouchEvent(event);
-        }
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                mHolderEventFlag = DraggableManager.getInstance().lockDraw(this);
-                if (mHolderEventFlag) {
-                    startDraggable(event);
-                }
-                break;
-            case MotionEvent.ACTION_MOVE:
-                if (mHolderEventFlag) {
-                    updateDraggable(event);
-                }
-                break;
-            default:
-                if (mHolderEventFlag) {
-                    mHolderEventFlag = false;
-                    stopDraggable(event);
-                }
-                break;
-        }
-        return mHolderEventFlag || super.onTouchEvent(event);
+    protected void onDetachedFromWindow() {
+        mHelper.onDetachedFromWindow();
+        super.onDetachedFromWindow();
     }
 
-    private void startDraggable(MotionEvent event) {
-        mIsExceedMaxDistance = false;
-        ViewGroup parent = getScrollableParent();
-        if (parent != null) {
-            parent.requestDisallowInterceptTouchEvent(true);
-        }
-
-        Rect rect = getViewRectOnScreen();
-
-        mWidth = getWidth();
-        mHeight = getHeight();
-
-        mOffsetX = event.getRawX() - rect.left;
-        mOffsetY = event.getRawY() - rect.top;
-
-        mAnchorCenterX = rect.centerX();
-        mAnchorCenterY = rect.centerY();
-
-        mTargetCenterX = mAnchorCenterX;
-        mTargetCenterY = mAnchorCenterY;
-
-        Picture picture = getViewToPicture();
-        setDrawSelf(false);
-        DraggableManager.getInstance().start(picture, mDraggableBezierColor, rect);
-    }
-
-    private Rect getViewRectOnScreen() {
-        final int[] location = new int[2];
-        getLocationOnScreen(location);
-        return new Rect(location[0], location[1] ,
-                location[0] + getWidth(),
-                location[1] + getHeight());
-    }
-
-    private void updateDraggable(MotionEvent event) {
-
-        Rect rect = getTargetRect(event);
-        mTargetCenterX = rect.centerX();
-        mTargetCenterY = rect.centerY();
-
-        double distance = getDistance();
-        if (distance > mMaxDistanceWeights) {
-            mIsExceedMaxDistance = true;
-        }
-        //计算当前移动距离占最远距离的百分比
-        // 1减去当前距离百分比乘以半径的可变动范围得到剩余可变动半径
-        // 用最小半径加上剩余可变动半径得到当前半径
-        float anchorRadius = mIsExceedMaxDistance ? 0 :
-                (float) (1.0f - distance / mMaxDistanceWeights) * (getMaxRadius() - getMinRadius()) + getMinRadius();
-        DraggableManager.getInstance().update(rect, anchorRadius, !mIsExceedMaxDistance);
-    }
-
-    @NonNull
-    private Rect getTargetRect(MotionEvent event) {
-        int left = (int) (event.getRawX() - mOffsetX);
-        int top = (int) (event.getRawY() - mOffsetY);
-        return new Rect(left, top, left + mWidth, top + mHeight);
-    }
-
-    private void stopDraggable(MotionEvent event) {
-        ViewGroup parent = getScrollableParent();
-        if (parent != null) {
-            parent.requestDisallowInterceptTouchEvent(false);
-        }
-
-        Rect rect = getTargetRect(event);
-        mTargetCenterX = rect.centerX();
-        mTargetCenterY = rect.centerY();
-
-        boolean draggableValid = mIsExceedMaxDistance && getDistance() > mCanRecoverDistance;
-        boolean playDamping = (draggableValid && checkDisappearAnimation())
-                || (!mIsExceedMaxDistance && checkDampingAnimation());
-        DraggableManager.getInstance().stop(rect, playDamping);
-        if (draggableValid) {
-            if (mOnDragListener != null) {
-                mOnDragListener.onDragComplete(this);
-            }
-            playDisappearAnimation(mTargetCenterX, mTargetCenterY, new Animator.AnimatorListener() {
-                @Override
-                public void onAnimationStart(Animator animator) {
-
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animator) {
-                    if (mOnDragListener != null) {
-                        mOnDragListener.onDisappearComplete(DraggableView.this);
-                    }
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animator) {
-
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animator) {
-
-                }
-            });
-        } else if (!mIsExceedMaxDistance) {
-            playDampingAnimation();
-        } else {
-            setDrawSelf(true);
-        }
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mHelper.onSizeChanged(w, h, oldw, oldh);
     }
 
-    /**
-     * 检查震荡动画是否有效
-     *
-     * @return true 有效, false 无效
-     */
-    private boolean checkDampingAnimation() {
-        return mDampingAnimationCount > 0 && mDampingAnimationDuration > 0;
-    }
-
-    protected Picture getViewToPicture() {
-        int width = getWidth();
-        int height = getHeight();
-        Picture picture = new Picture();
-        Canvas canvas = picture.beginRecording(width, height);
-        draw(canvas);
-        picture.endRecording();
-        return picture;
-    }
-
-    @Nullable
-    protected Picture getViewToVisiblePicture() {
-        Rect rect = new Rect();
-        boolean visible = getLocalVisibleRect(rect);
-        if (visible) {
-            int width = getWidth();
-            int height = getHeight();
-            Picture picture = new Picture();
-            Canvas canvas = picture.beginRecording(width, height);
-            canvas.clipRect(rect);
-            draw(canvas);
-            picture.endRecording();
-            return picture;
-        }
-        return null;
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return mHelper.onTouchEvent(event);
     }
 
     /**
@@ -513,12 +175,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 距离
      */
     public double getDistance() {
-        return Math.sqrt(Math.pow(mAnchorCenterX - mTargetCenterX, 2) + Math.pow(mAnchorCenterY - mTargetCenterY, 2));
-    }
-
-    @Override
-    public void setVisibility(int visibility) {
-        super.setVisibility(visibility);
+        return mHelper.getDistance();
     }
 
     /**
@@ -527,7 +184,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 最大距离
      */
     public int getMaxDistance() {
-        return mMaxDistanceWeights;
+        return mHelper.getMaxDistance();
     }
 
     /**
@@ -536,8 +193,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param maxDistanceWeights 最大距离
      */
     public void setMaxDistance(int maxDistanceWeights) {
-        mMaxDistanceWeights = maxDistanceWeights;
-        calibrationCanRecoverDistance();
+        mHelper.setMaxDistance(maxDistanceWeights);
     }
 
     /**
@@ -546,7 +202,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 最小半径
      */
     public int getMinRadius() {
-        return mMinAnchorRadius;
+        return mHelper.getMinRadius();
     }
 
     /**
@@ -555,11 +211,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param minRadius 最小半径
      */
     public void setMinRadius(int minRadius) {
-        if (minRadius <= 0) {
-            throw new IllegalArgumentException("miniRadius should be greater than zero");
-        }
-        mMinAnchorRadius = minRadius;
-        calibrationAnchorRadius();
+        mHelper.setMinRadius(minRadius);
     }
 
     /**
@@ -568,7 +220,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 最大半径
      */
     public int getMaxRadius() {
-        return mMaxAnchorRadius;
+        return mHelper.getMaxRadius();
     }
 
     /**
@@ -577,11 +229,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param maxRadius  最大半径
      */
     public void setMaxRadius(int maxRadius) {
-        if (maxRadius <= 0) {
-            throw new IllegalArgumentException("maxRadius should be greater than zero");
-        }
-        mMaxAnchorRadius = maxRadius;
-        calibrationAnchorRadius();
+        mHelper.setMaxRadius(maxRadius);
     }
 
     /**
@@ -590,7 +238,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 可以恢复距离
      */
     public int getCanRecoverDistance() {
-        return mCanRecoverDistance;
+        return mHelper.getCanRecoverDistance();
     }
 
     /**
@@ -599,8 +247,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param canRecoverDistance 可以恢复距离
      */
     public void setCanRecoverDistance(int canRecoverDistance) {
-        this.mCanRecoverDistance = canRecoverDistance;
-        calibrationCanRecoverDistance();
+        mHelper.setCanRecoverDistance(canRecoverDistance);
     }
 
     /**
@@ -609,7 +256,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 消失动画的持续时间
      */
     public int getAnimationDuration() {
-        return mDisappearAnimationDuration;
+        return mHelper.getAnimationDuration();
     }
 
     /**
@@ -618,25 +265,52 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param animationDuration 消失动画的持续时间
      */
     public void setAnimationDuration(int animationDuration) {
-        this.mDisappearAnimationDuration = animationDuration;
+        mHelper.setAnimationDuration(animationDuration);
     }
 
     /**
-     * 获取消失动画
+     * 获取消失动画，帧数组可能与其他视图共享，返回的是副本
      *
      * @return 消失动画
      */
     public int[] getAnimationArray() {
-        return mDisappearAnimationArray;
+        return mHelper.getAnimationArray();
     }
 
     /**
-     * 设置消失动画
+     * 设置消失动画，保存的是副本，之后修改传入的数组不会生效
      *
      * @param animationArray 消失动画
      */
     public void setAnimationArray(int[] animationArray) {
-        this.mDisappearAnimationArray = animationArray;
+        mHelper.setAnimationArray(animationArray);
+    }
+
+    /**
+     * 通过数组资源设置消失动画，使用相同资源的视图共享解码后的帧
+     *
+     * @param arrayResId 消失动画帧数组资源
+     */
+    public void setAnimationArrayResource(@ArrayRes int arrayResId) {
+        mHelper.setAnimationArrayResource(arrayResId);
+    }
+
+    /**
+     * 获取消失动画的着色颜色
+     *
+     * @return 着色颜色，透明时不着色
+     */
+    public int getAnimationTint() {
+        return mHelper.getAnimationTint();
+    }
+
+    /**
+     * 设置消失动画的着色颜色，着色在绘制时进行，不需要额外的帧资源
+     *
+     * @param animationTint 着色颜色，透明时不着色
+     */
+    public void setAnimationTint(@ColorInt int animationTint) {
+        mHelper.setAnimationTint(animationTint);
     }
 
     /**
@@ -645,7 +319,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 消失动画的大小
      */
     public int getAnimationSize() {
-        return (int) (mDisappearAnimationHalfSize * 2);
+        return mHelper.getAnimationSize();
     }
 
     /**
@@ -654,7 +328,43 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param mAnimationHalfSize 消失动画的大小
      */
     public void setAnimationHalfSize(int mAnimationHalfSize) {
-        this.mDisappearAnimationHalfSize = mAnimationHalfSize / 2.0f;
+        mHelper.setAnimationHalfSize(mAnimationHalfSize);
+    }
+
+    /**
+     * 获取消失动画模式 {@link DisappearMode}
+     *
+     * @return {@link DisappearMode}
+     */
+    public DisappearMode getDisappearMode() {
+        return mHelper.getDisappearMode();
+    }
+
+    /**
+     * 设置消失动画模式 {@link DisappearMode}
+     *
+     * @param disappearMode {@link DisappearMode}
+     */
+    public void setDisappearMode(DisappearMode disappearMode) {
+        mHelper.setDisappearMode(disappearMode);
+    }
+
+    /**
+     * 获取粒子爆炸的粒子数量
+     *
+     * @return 粒子数量
+     */
+    public int getDisappearParticleCount() {
+        return mHelper.getDisappearParticleCount();
+    }
+
+    /**
+     * 设置粒子爆炸的粒子数量，{@link #getDisappearMode()}为{@link DisappearMode#PARTICLES}时有效
+     *
+     * @param disappearParticleCount 粒子数量
+     */
+    public void setDisappearParticleCount(int disappearParticleCount) {
+        mHelper.setDisappearParticleCount(disappearParticleCount);
     }
 
     /**
@@ -663,7 +373,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 绘制拖拽动画的贝塞尔曲线的颜色
      */
     public int getDraggableBezierColor() {
-        return mDraggableBezierColor;
+        return mHelper.getDraggableBezierColor();
     }
 
     /**
@@ -672,7 +382,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param draggableBezierColor 绘制拖拽动画的贝塞尔曲线的颜色
      */
     public void setDraggableBezierColor(int draggableBezierColor) {
-        mDraggableBezierColor = draggableBezierColor;
+        mHelper.setDraggableBezierColor(draggableBezierColor);
     }
 
     /**
@@ -681,7 +391,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param enabled true 允许,false 禁止
      */
     public void setDragEnabled(boolean enabled) {
-        mDragEnable = enabled;
+        mHelper.setDragEnabled(enabled);
     }
 
     /**
@@ -690,7 +400,27 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return true 允许,false 禁止
      */
     public boolean isDragEnable() {
-        return mDragEnable;
+        return mHelper.isDragEnable();
+    }
+
+    /**
+     * 是否启用低延迟拖动
+     *
+     * @return true 启用，false 不启用
+     */
+    public boolean isLowLatencyEnable() {
+        return mHelper.isLowLatencyEnable();
+    }
+
+    /**
+     * 设置是否启用低延迟拖动，启用后拖动时按最近的触摸点预测手指位置绘制，
+     * Android 11及以上还会请求不按帧批处理触摸事件。拖动过程中修改时预测立即生效，
+     * 不按帧批处理从下次开始拖动时生效
+     *
+     * @param lowLatencyEnable true 启用，false 不启用
+     */
+    public void setLowLatencyEnable(boolean lowLatencyEnable) {
+        mHelper.setLowLatencyEnable(lowLatencyEnable);
     }
 
     /**
@@ -699,7 +429,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return true 启用跟随，false 不启用跟随
      */
     public boolean isFollowDisappearEnable() {
-        return mFollowDisappearEnable;
+        return mHelper.isFollowDisappearEnable();
     }
 
     /**
@@ -708,7 +438,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param followDisappearEnable true 启用跟随，false 不启用跟随
      */
     public void setFollowDisappearEnable(boolean followDisappearEnable) {
-        mFollowDisappearEnable = followDisappearEnable;
+        mHelper.setFollowDisappearEnable(followDisappearEnable);
     }
 
     /**
@@ -717,7 +447,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return {@link FollowMode}
      */
     public FollowMode getFollowMode() {
-        return mFollowMode;
+        return mHelper.getFollowMode();
     }
 
     /**
@@ -726,10 +456,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param followMode @link FollowMode}
      */
     public void setFollowMode(FollowMode followMode) {
-        mFollowMode = followMode;
-        if (mFollowMode == null) {
-            mFollowMode = FollowMode.SIMULTANEOUSLY;
-        }
+        mHelper.setFollowMode(followMode);
     }
 
     /**
@@ -738,7 +465,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 减震动画的持续时间
      */
     public int getDampingAnimationDuration() {
-        return mDampingAnimationDuration;
+        return mHelper.getDampingAnimationDuration();
     }
 
     /**
@@ -747,7 +474,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param dampingAnimationDuration 减震动画的持续时间
      */
     public void setDampingAnimationDuration(int dampingAnimationDuration) {
-        this.mDampingAnimationDuration = dampingAnimationDuration;
+        mHelper.setDampingAnimationDuration(dampingAnimationDuration);
     }
 
     /**
@@ -756,7 +483,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 减震动画的回弹次数
      */
     public int getDampingAnimationCount() {
-        return mDampingAnimationCount;
+        return mHelper.getDampingAnimationCount();
     }
 
     /**
@@ -765,7 +492,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param dampingAnimationCount 减震动画的回弹次数
      */
     public void setDampingAnimationCount(int dampingAnimationCount) {
-        this.mDampingAnimationCount = dampingAnimationCount;
+        mHelper.setDampingAnimationCount(dampingAnimationCount);
     }
 
     /**
@@ -792,7 +519,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 视图标记
      */
     public String getMark() {
-        return mMark;
+        return mHelper.getMark();
     }
 
     /**
@@ -801,13 +528,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param mark 视图标记
      */
     public void setMark(String mark) {
-        if (TextUtils.equals(mMark, mark)) {
-            return;
-        }
-        String oldMark = mMark;
-        mMark = mark;
-        mSubordinateList.clear();
-        DraggableManager.getInstance().encaseDraggableView(oldMark, this);
+        mHelper.setMark(mark);
     }
 
     /**
@@ -816,7 +537,7 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @return 领导视图标记
      */
     public String getLeaderMark() {
-        return mLeaderMark;
+        return mHelper.getLeaderMark();
     }
 
     /**
@@ -825,313 +546,116 @@ public class DraggableView extends AppCompatTextView implements Animator.Animato
      * @param leaderMark 领导标记
      */
     public void setLeaderMark(String leaderMark) {
-        if (TextUtils.equals(mLeaderMark, leaderMark)) {
-            return;
-        }
-        DraggableViewWeakReference draggableViewWeakReference =
-                new DraggableViewWeakReference(this);
-        if (!TextUtils.isEmpty(mLeaderMark)) {
-            DraggableView leader = DraggableManager.getInstance().findLeader(this);
-            if (leader != null) {
-                leader.mSubordinateList.remove(draggableViewWeakReference);
-            }
-        }
-        mLeaderMark = leaderMark;
-        if (!TextUtils.isEmpty(mLeaderMark)) {
-            DraggableView leader = DraggableManager.getInstance().findLeader(this);
-            if (leader == null) {
-                throw new RuntimeException("Not find leader,Please set the leader mark first.");
-            }
-            List<DraggableViewWeakReference> draggableViewWeakReferences = leader.mSubordinateList;
-            draggableViewWeakReferences.removeAll(Arrays.asList(draggableViewWeakReference,
-                    DraggableViewWeakReference.NULL));
-            draggableViewWeakReferences.add(draggableViewWeakReference);
-        }
+        mHelper.setLeaderMark(leaderMark);
     }
 
     /**
-     * 获取销毁排序字段， {@link #mFollowMode}为{@link FollowMode#TRAILING}该字段有效
+     * 获取自身计数
      *
-     * @return 销毁排序字段
-     */
-    public int getSort() {
-        return mSort;
-    }
-
-    /**
-     * 设置销毁排序字段，{@link #mFollowMode}为{@link FollowMode#TRAILING}该字段有效
-     * @param sort
+     * @return 自身计数
      */
-    public void setSort(int sort) {
-        if (sort < 0) {
-            throw new IllegalArgumentException("Sort field cannot be less than 0");
-        }
-        mSort = sort;
-    }
-
-
-    @Override
-    public int compareTo(@NonNull DraggableView draggableView) {
-        return compare(this, draggableView);
-    }
-
-    public int compare(DraggableView draggableView1, DraggableView draggableView2) {
-        return (draggableView1.mSort < draggableView2.mSort) ? -1 :
-                ((draggableView1.mSort == draggableView2.mSort) ? 0 : 1);
+    public int getCount() {
+        return mHelper.getCount();
     }
 
     /**
-     * 交接下属
+     * 设置自身计数，计数变化会沿领导链向上传递，文本在下一帧统一刷新。
+     * 有标记的跟随视图的计数按标记保存，视图离开窗口或被复用后仍计入领导者的计数
      *
-     * @param toDraggableView 被交接人
+     * @param count 自身计数，非负整数
      */
-    protected void handoverSubordinate(DraggableView toDraggableView) {
-        toDraggableView.mSubordinateList.addAll(mSubordinateList);
-        mSubordinateList.clear();
+    public void setCount(int count) {
+        mHelper.setCount(count);
     }
 
     /**
-     * 获取可滑动的父视图
+     * 获取自身与所有从属视图的计数之和
      *
-     * @return 父视图
+     * @return 计数之和
      */
-    private ViewGroup getScrollableParent() {
-        View target = this;
-        while (true) {
-            View parent;
-            try {
-                parent = (View) target.getParent();
-            } catch (Exception e) {
-                return null;
-            }
-            if (parent == null) {
-                return null;
-            }
-            if (parent instanceof ListView || parent instanceof ScrollView) {
-                return (ViewGroup) parent;
-            }
-            target = parent;
-        }
-    }
-
-
-    @Override
-    public boolean equals(@Nullable Object obj) {
-        if (obj instanceof DraggableView && !TextUtils.isEmpty(getMark()) && !TextUtils.isEmpty(((DraggableView) obj).getMark())) {
-            return TextUtils.equals(getMark(), ((DraggableView) obj).getMark());
-        }
-        return super.equals(obj);
-    }
-
-    @Override
-    public int hashCode() {
-        if (!TextUtils.isEmpty(getMark())) {
-            return getMark().hashCode();
-        }
-        return super.hashCode();
+    public int getTotalCount() {
+        return mHelper.getTotalCount();
     }
 
     /**
-     * 当前是否可见
+     * 显示新的计数，同一帧内最多调用一次
      *
-     * @return true 可见,false 不可见
+     * @param totalCount 自身计数与所有跟随者计数之和
      */
-    protected boolean isCover() {
-        if (getVisibility() != VISIBLE) {
-            return false;
-        }
-        if (getParent() == null) {
-            return false;
-        }
-        Rect rect = new Rect();
-        return getGlobalVisibleRect(rect);
-    }
-
-    protected void setDrawSelf(boolean drawSelf) {
-        if (mDrawSelf == drawSelf) {
-            return;
-        }
-        mDrawSelf = drawSelf;
-        invalidate();
-    }
-
-    /**
-     * 视图有位移后，播放减震动画
-     */
-    private void playDampingAnimation() {
-        DampingAnimator dampingAnimator = DraggableManager.getInstance().newDampingAnimation();
-        if (dampingAnimator != null) {
-            dampingAnimator.setAnchor(mAnchorCenterX - mWidth / 2.0f,
-                    mAnchorCenterY - mHeight / 2.0f);
-            dampingAnimator.setDuration(mDampingAnimationDuration);
-            dampingAnimator.setDampingCount(mDampingAnimationCount);
-            dampingAnimator.addListener(this);
-            dampingAnimator.start();
-        } else {
-            setDrawSelf(true);
+    protected void onTotalCountChanged(int totalCount) {
+        String text = String.valueOf(totalCount);
+        if (!TextUtils.equals(getText(), text)) {
+            setText(text);
         }
     }
 
     /**
-     * 播放消失动画
+     * 获取销毁排序字段， {@link #getFollowMode()}为{@link FollowMode#TRAILING}该字段有效
      *
-     * @param listener 动画监听
-     * @return true 开始播放，false 播放失败
+     * @return 销毁排序字段
      */
-    public boolean playDisappearAnimation(@Nullable Animator.AnimatorListener listener) {
-        if (!isCover()) {
-            return false;
-        }
-        calculationCenterPoint();
-        return playDisappearAnimation(mAnchorCenterX, mAnchorCenterY, listener);
-    }
-
-    private void calculationCenterPoint() {
-        int[] location = new int[2];
-        getLocationOnScreen(location);
-        mAnchorCenterX = location[0] + getWidth() / 2.0f;
-        mAnchorCenterY = location[1] + getHeight() / 2.0f;
+    public int getSort() {
+        return mHelper.getSort();
     }
 
     /**
-     * 播放消失动画
-     *
-     * @param x 中心点X坐标
-     * @param y 中心点Y坐标
-     * @return true 开始播放，false 播放失败
+     * 设置销毁排序字段，{@link #getFollowMode()}为{@link FollowMode#TRAILING}该字段有效
+     * @param sort
      */
-    private boolean playDisappearAnimation(float x, float y,
-                                           @Nullable Animator.AnimatorListener listener) {
-
-        DisappearAnimator disappearAnimator = buildDisappearAnimator(x, y);
-        if (disappearAnimator == null) {
-            setDrawSelf(true);
-            return false;
-        }
-        DisappearAnimatorSet disappearAnimatorSet = new DisappearAnimatorSet();
-
-        if (listener != null) {
-            disappearAnimatorSet.addListener(listener);
-        }
-        disappearAnimatorSet.addListener(this);
-        DisappearAnimatorSet.Builder builder = disappearAnimatorSet.play(disappearAnimator);
-        recursiveSubordinate(this, builder);
-
-        disappearAnimatorSet.start();
-        return true;
-    }
-
-    private DisappearAnimator buildDisappearAnimator() {
-        if (!isCover()) {
-            return null;
-        }
-        calculationCenterPoint();
-        return buildDisappearAnimator(mAnchorCenterX, mAnchorCenterY);
+    public void setSort(int sort) {
+        mHelper.setSort(sort);
     }
 
-    private DisappearAnimator buildDisappearAnimator(float x, float y) {
-        if (!checkDisappearAnimation()) {
-            return null;
-        }
-        DisappearAnimator disappearAnimator =
-                DraggableManager.getInstance().newDisappearAnimation();
-        if (disappearAnimator == null) {
-            return null;
-        }
-
-        Rect rect = getDisappearAnimationRect(x, y);
-        disappearAnimator.setDuration(mDisappearAnimationDuration);
-        disappearAnimator.setDisappear(mDisappearAnimationArray);
-        disappearAnimator.addRect(rect);
-        return disappearAnimator;
+    @Override
+    public int compareTo(@NonNull DraggableView draggableView) {
+        return compare(this, draggableView);
     }
 
-    /**
-     * 检查销毁动画是否有效
-     *
-     * @return true 销毁动画有效，false 销毁动画无效
-     */
-    private boolean checkDisappearAnimation() {
-        return mDisappearAnimationDuration > 0 && mDisappearAnimationArray != null && mDisappearAnimationArray.length != 0 && mDisappearAnimationHalfSize > 0;
+    public int compare(DraggableView draggableView1, DraggableView draggableView2) {
+        return draggableView1.mHelper.compareTo(draggableView2.mHelper);
     }
 
-    @NonNull
-    private Rect getDisappearAnimationRect() {
-        calculationCenterPoint();
-        return getDisappearAnimationRect(mAnchorCenterX, mAnchorCenterY);
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (mHelper != null && obj instanceof DraggableView) {
+            return mHelper.equals(((DraggableView) obj).mHelper);
+        }
+        return super.equals(obj);
     }
 
-    @NonNull
-    private Rect getDisappearAnimationRect(float centerX, float centerY) {
-        return new Rect((int) (centerX - mDisappearAnimationHalfSize),
-                (int) (centerY - mDisappearAnimationHalfSize),
-                (int) (centerX + mDisappearAnimationHalfSize),
-                (int) (centerY + mDisappearAnimationHalfSize));
+    @Override
+    public int hashCode() {
+        //父类构造时可能已经使用哈希值，此时还没有拖拽实现
+        return mHelper != null ? mHelper.hashCode() : super.hashCode();
     }
 
     /**
-     * 递归获取所有的跟随视图
+     * 播放消失动画
      *
-     * @param draggableView 主视图
-     * @param builder       动画
+     * @param listener 动画监听
+     * @return true 开始播放，false 播放失败
      */
-    private void recursiveSubordinate(DraggableView draggableView,
-                                      DisappearAnimatorSet.Builder builder) {
-        if (draggableView.isFollowDisappearEnable() && !TextUtils.isEmpty(draggableView.getMark())) {
-            FollowMode followMode = draggableView.getFollowMode();
-            List<DraggableViewWeakReference> draggableViewWeakReferenceList =
-                    draggableView.mSubordinateList;
-            if (draggableViewWeakReferenceList.isEmpty()) {
-                return;
-            }
-            Collections.sort(draggableViewWeakReferenceList);
-            for (DraggableViewWeakReference draggableViewWeakReference :
-                    draggableViewWeakReferenceList) {
-                DraggableView subDraggableView = draggableViewWeakReference.get();
-                if (subDraggableView != null) {
-                    if (subDraggableView.isCover()) {
-                        Log.e("XYQ","subordinate id : " + subDraggableView.getSort());
-                        if (followMode == FollowMode.SIMULTANEOUSLY) {
-                            builder.with(subDraggableView.getDisappearAnimationRect());
-                            builder.addListener(subDraggableView);
-                        } else if (followMode == FollowMode.TRAILING) {
-                            DisappearAnimator disappearAnimator =
-                                    subDraggableView.buildDisappearAnimator();
-                            if (disappearAnimator != null) {
-                                Picture picture = subDraggableView.getViewToVisiblePicture();
-                                if (picture != null) {
-                                    Rect rect = subDraggableView.getViewRectOnScreen();
-                                    builder.addPlaceholder(new TargetElement(rect, picture));
-                                }
-                                builder.before(disappearAnimator);
-                                builder.addListener(subDraggableView);
-                            }
-                        }
-                    }
-                    recursiveSubordinate(subDraggableView, builder);
-                }
-            }
-        }
+    public boolean playDisappearAnimation(@Nullable Animator.AnimatorListener listener) {
+        return mHelper.playDisappearAnimation(listener);
     }
 
     @Override
     public void onAnimationStart(Animator animation) {
-        setDrawSelf(false);
+        mHelper.onAnimationStart(animation);
     }
 
     @Override
     public void onAnimationEnd(Animator animation) {
-        setDrawSelf(true);
+        mHelper.onAnimationEnd(animation);
     }
 
     @Override
     public void onAnimationCancel(Animator animation) {
-
+        mHelper.onAnimationCancel(animation);
     }
 
     @Override
     public void onAnimationRepeat(Animator animation) {
-
+        mHelper.onAnimationRepeat(animation);
     }
-
 }
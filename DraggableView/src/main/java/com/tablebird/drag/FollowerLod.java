@@ -0,0 +1,158 @@
+package com.tablebird.drag;
+
+import android.animation.Animator;
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.core.util.Pools;
+import androidx.core.view.ViewCompat;
+
+import com.tablebird.drag.animation.DisappearAnimatorSet;
+
+import java.util.ArrayList;
+
+/**
+ * 一次销毁中跟随视图的细节层级
+ * <p>
+ * 前{@link DraggableManager#getMaxDetailedFollowers()}个可见的跟随视图播放完整的消失动画，
+ * 之后的跟随视图按{@link DraggableManager.FollowerEffect}使用共享的爆炸或只淡出
+ */
+class FollowerLod {
+
+    private static final int FADE_LISTENER_POOL_SIZE = 2;
+
+    /**
+     * 淡出监听在动画集合结束后回收，同时播放的销毁各使用一个
+     */
+    private final Pools.SimplePool<FadeListener> mFadeListenerPool =
+            new Pools.SimplePool<>(FADE_LISTENER_POOL_SIZE);
+
+    private int mMaxDetailedFollowers;
+
+    private DraggableManager.FollowerEffect mFollowerEffect;
+
+    /**
+     * 已遍历的可见跟随视图数量
+     */
+    private int mFollowerCount;
+
+    /**
+     * 简化的跟随视图中心点之和，用于计算共享爆炸的位置
+     */
+    private float mSumCenterX;
+
+    private float mSumCenterY;
+
+    private final ArrayList<DraggableHelper> mReducedFollowers = new ArrayList<>();
+
+    /**
+     * 开始新的一次销毁
+     */
+    void reset(int maxDetailedFollowers, @NonNull DraggableManager.FollowerEffect followerEffect) {
+        mMaxDetailedFollowers = maxDetailedFollowers;
+        mFollowerEffect = followerEffect;
+        mFollowerCount = 0;
+        mSumCenterX = 0;
+        mSumCenterY = 0;
+        mReducedFollowers.clear();
+    }
+
+    /**
+     * 记录一个可见的跟随视图
+     *
+     * @param follower 跟随视图
+     * @param rect     跟随视图在屏幕上的区域
+     * @return true 播放完整的消失动画，false 已按简化效果记录
+     */
+    boolean addFollower(@NonNull DraggableHelper follower, @NonNull Rect rect) {
+        if (mFollowerCount++ < mMaxDetailedFollowers
+                || mFollowerEffect == DraggableManager.FollowerEffect.EXPLOSION) {
+            return true;
+        }
+        mSumCenterX += rect.exactCenterX();
+        mSumCenterY += rect.exactCenterY();
+        mReducedFollowers.add(follower);
+        return false;
+    }
+
+    /**
+     * 将简化的跟随视图加入动画
+     *
+     * @param leader  领导者，用于计算共享爆炸的区域
+     * @param builder 动画
+     * @param set     动画集合
+     */
+    void apply(@NonNull DraggableHelper leader, @NonNull DisappearAnimatorSet.Builder builder,
+               @NonNull DisappearAnimatorSet set) {
+        int count = mReducedFollowers.size();
+        if (count == 0) {
+            return;
+        }
+        if (mFollowerEffect == DraggableManager.FollowerEffect.SHARED_BURST) {
+            builder.with(leader.getDisappearAnimationRect(mSumCenterX / count,
+                    mSumCenterY / count));
+            for (int i = 0; i < count; i++) {
+                builder.addListener(mReducedFollowers.get(i));
+            }
+        } else if (mFollowerEffect == DraggableManager.FollowerEffect.FADE) {
+            FadeListener fadeListener = mFadeListenerPool.acquire();
+            if (fadeListener == null) {
+                fadeListener = new FadeListener(mFadeListenerPool);
+            }
+            fadeListener.bind(set, mReducedFollowers);
+            set.addListener(fadeListener);
+        }
+        mReducedFollowers.clear();
+    }
+
+    /**
+     * 在动画集合播放期间淡出跟随视图，结束后恢复透明度并回收
+     */
+    private static class FadeListener implements Animator.AnimatorListener {
+
+        private final Pools.SimplePool<FadeListener> mPool;
+
+        private DisappearAnimatorSet mSet;
+
+        private final ArrayList<DraggableHelper> mFollowers = new ArrayList<>();
+
+        FadeListener(Pools.SimplePool<FadeListener> pool) {
+            mPool = pool;
+        }
+
+        void bind(DisappearAnimatorSet set, ArrayList<DraggableHelper> followers) {
+            mSet = set;
+            mFollowers.addAll(followers);
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            long duration = Math.max(0, mSet.getTotalDuration());
+            for (int i = 0, size = mFollowers.size(); i < size; i++) {
+                ViewCompat.animate(mFollowers.get(i).getView()).alpha(0).setDuration(duration);
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            for (int i = 0, size = mFollowers.size(); i < size; i++) {
+                View follower = mFollowers.get(i).getView();
+                ViewCompat.animate(follower).cancel();
+                follower.setAlpha(1);
+            }
+            //动画集合回收时会移除所有监听，这里只释放引用
+            mFollowers.clear();
+            mSet = null;
+            mPool.release(this);
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+        }
+
+        @Override
+        public void onAnimationRepeat(Animator animation) {
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.tablebird.drag;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewParent;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 批量计算多个视图在屏幕上的位置与可见性
+ * <p>
+ * 每个祖先视图只计算一次位置与裁剪区域，之后的视图直接在其基础上累加，
+ * 结果写入复用的数组，祖先不可见或被裁剪掉的视图直接跳过
+ * <p>
+ * 位置按left、top与滚动累加，视图自身或任一祖先有平移、缩放或旋转时单独调用
+ * {@link View#getLocationOnScreen(int[])}，此时祖先的裁剪区域不再适用，只按可见性判断
+ * <p>
+ * 结果持有视图的引用，使用后应调用{@link #clear()}
+ */
+class GeometryPass {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 按序号保存的视图
+     */
+    private View[] mViews = new View[INITIAL_CAPACITY];
+
+    /**
+     * 以视图的identityHashCode开放寻址的索引表，保存序号加1，0为空位
+     */
+    private int[] mTable = new int[INITIAL_CAPACITY * 2];
+
+    private int[] mLeft = new int[INITIAL_CAPACITY];
+
+    private int[] mTop = new int[INITIAL_CAPACITY];
+
+    private int[] mWidth = new int[INITIAL_CAPACITY];
+
+    private int[] mHeight = new int[INITIAL_CAPACITY];
+
+    /**
+     * 祖先裁剪后的可见区域，屏幕坐标
+     */
+    private int[] mClip = new int[INITIAL_CAPACITY * 4];
+
+    private boolean[] mVisible = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * 视图自身或祖先的变换矩阵不是单位矩阵
+     */
+    private boolean[] mTransformed = new boolean[INITIAL_CAPACITY];
+
+    private int mCount;
+
+    private final int[] mLocation = new int[2];
+
+    /**
+     * 清除结果与持有的视图引用
+     */
+    void clear() {
+        if (mCount == 0) {
+            return;
+        }
+        Arrays.fill(mViews, 0, mCount, null);
+        Arrays.fill(mTable, 0);
+        mCount = 0;
+    }
+
+    /**
+     * 计算视图的位置与可见性
+     *
+     * @param view 视图
+     * @return 结果序号，视图不可见或被祖先裁剪掉时为-1
+     */
+    int measure(@NonNull View view) {
+        if (view.getWindowToken() == null) {
+            return -1;
+        }
+        int index = resolve(view);
+        if (!mVisible[index]) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * 获取视图在屏幕上的区域
+     *
+     * @param index {@link #measure(View)}返回的序号
+     * @param out   结果
+     */
+    void getRect(int index, @NonNull Rect out) {
+        out.set(mLeft[index], mTop[index], mLeft[index] + mWidth[index],
+                mTop[index] + mHeight[index]);
+    }
+
+    private int resolve(View view) {
+        int cached = indexOf(view);
+        if (cached >= 0) {
+            return cached;
+        }
+        ViewParent parent = view.getParent();
+        int parentIndex = parent instanceof View ? resolve((View) parent) : -1;
+
+        int index = mCount++;
+        ensureCapacity(mCount);
+        mViews[index] = view;
+        putIndex(view, index);
+
+        int width = view.getWidth();
+        int height = view.getHeight();
+        boolean transformed = !view.getMatrix().isIdentity()
+                || (parentIndex >= 0 && mTransformed[parentIndex]);
+        mTransformed[index] = transformed;
+        int left;
+        int top;
+        if (parentIndex < 0 || transformed) {
+            view.getLocationOnScreen(mLocation);
+            left = mLocation[0];
+            top = mLocation[1];
+        } else {
+            View parentView = (View) parent;
+            left = mLeft[parentIndex] + view.getLeft() - parentView.getScrollX();
+            top = mTop[parentIndex] + view.getTop() - parentView.getScrollY();
+        }
+        mLeft[index] = left;
+        mTop[index] = top;
+        mWidth[index] = width;
+        mHeight[index] = height;
+
+        int clip = index * 4;
+        int clipLeft = left;
+        int clipTop = top;
+        int clipRight = left + width;
+        int clipBottom = top + height;
+        boolean visible = view.getVisibility() == View.VISIBLE;
+        if (parentIndex >= 0) {
+            visible = visible && mVisible[parentIndex];
+        }
+        if (parentIndex >= 0 && !mTransformed[parentIndex]) {
+            //祖先有变换时其区域与屏幕上的实际区域不一致，不参与裁剪
+            int parentClip = parentIndex * 4;
+            clipLeft = Math.max(clipLeft, mClip[parentClip]);
+            clipTop = Math.max(clipTop, mClip[parentClip + 1]);
+            clipRight = Math.min(clipRight, mClip[parentClip + 2]);
+            clipBottom = Math.min(clipBottom, mClip[parentClip + 3]);
+        }
+        mClip[clip] = clipLeft;
+        mClip[clip + 1] = clipTop;
+        mClip[clip + 2] = clipRight;
+        mClip[clip + 3] = clipBottom;
+        mVisible[index] = visible && clipLeft < clipRight && clipTop < clipBottom;
+        return index;
+    }
+
+    private int indexOf(View view) {
+        int mask = mTable.length - 1;
+        for (int slot = System.identityHashCode(view) & mask; ; slot = (slot + 1) & mask) {
+            int entry = mTable[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (mViews[entry - 1] == view) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void putIndex(View view, int index) {
+        int mask = mTable.length - 1;
+        int slot = System.identityHashCode(view) & mask;
+        while (mTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        mTable[slot] = index + 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mLeft.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mLeft.length * 2);
+        mViews = Arrays.copyOf(mViews, newCapacity);
+        //索引表保持为容量的两倍，重新插入已有的视图
+        mTable = new int[newCapacity * 2];
+        for (int i = 0; i < capacity - 1; i++) {
+            putIndex(mViews[i], i);
+        }
+        mTransformed = Arrays.copyOf(mTransformed, newCapacity);
+        mLeft = Arrays.copyOf(mLeft, newCapacity);
+        mTop = Arrays.copyOf(mTop, newCapacity);
+        mWidth = Arrays.copyOf(mWidth, newCapacity);
+        mHeight = Arrays.copyOf(mHeight, newCapacity);
+        mClip = Arrays.copyOf(mClip, newCapacity * 4);
+        mVisible = Arrays.copyOf(mVisible, newCapacity);
+    }
+}
@@ -0,0 +1,160 @@
+package com.tablebird.drag;
+
+import android.view.MotionEvent;
+
+/**
+ * 轻量的触摸位置预测，按最近一段时间的触摸点做线性拟合，将位置沿速度方向外推
+ * <p>
+ * 用于低延迟拖动，抵消输入批处理与遮罩绘制带来的延迟，只保存屏幕坐标，不分配对象
+ */
+class MotionPredictor {
+
+    /**
+     * 参与拟合的最多触摸点
+     */
+    private static final int MAX_SAMPLES = 8;
+
+    /**
+     * 只使用该时间内的触摸点，单位ms
+     */
+    private static final long SAMPLE_WINDOW = 50;
+
+    /**
+     * 手指停住超过该时间后不再预测，单位ms
+     */
+    private static final long STALE_TIME = 40;
+
+    /**
+     * 默认外推时间，约为一帧，单位ms
+     */
+    static final long DEFAULT_PREDICTION_TIME = 16;
+
+    /**
+     * 外推距离上限，避免急停或抖动时越过手指太远，单位px
+     */
+    private final float mMaxPredictionDistance;
+
+    private final float[] mX = new float[MAX_SAMPLES];
+
+    private final float[] mY = new float[MAX_SAMPLES];
+
+    private final long[] mTime = new long[MAX_SAMPLES];
+
+    private int mIndex;
+
+    private int mCount;
+
+    private float mPredictedX;
+
+    private float mPredictedY;
+
+    MotionPredictor(float maxPredictionDistance) {
+        mMaxPredictionDistance = maxPredictionDistance;
+    }
+
+    void reset() {
+        mIndex = 0;
+        mCount = 0;
+    }
+
+    /**
+     * 添加一个事件中指定手指的所有触摸点，包括批处理的历史点
+     *
+     * @param event        触摸事件
+     * @param pointerIndex 手指序号
+     */
+    void addMovement(MotionEvent event, int pointerIndex) {
+        //getRawX只对应第一个手指，按视图内坐标换算到屏幕坐标
+        float offsetX = event.getRawX() - event.getX();
+        float offsetY = event.getRawY() - event.getY();
+        for (int h = 0, size = event.getHistorySize(); h < size; h++) {
+            addSample(offsetX + event.getHistoricalX(pointerIndex, h),
+                    offsetY + event.getHistoricalY(pointerIndex, h),
+                    event.getHistoricalEventTime(h));
+        }
+        addSample(offsetX + event.getX(pointerIndex), offsetY + event.getY(pointerIndex),
+                event.getEventTime());
+    }
+
+    void addSample(float x, float y, long time) {
+        if (mCount > 0 && time <= mTime[previous(mIndex)]) {
+            //时间相同的点只保留最新的位置
+            mIndex = previous(mIndex);
+            mCount--;
+        }
+        mX[mIndex] = x;
+        mY[mIndex] = y;
+        mTime[mIndex] = time;
+        mIndex = (mIndex + 1) % MAX_SAMPLES;
+        if (mCount < MAX_SAMPLES) {
+            mCount++;
+        }
+    }
+
+    /**
+     * 预测最新触摸点之后指定时间的位置，结果通过{@link #getPredictedX()}与{@link #getPredictedY()}获取
+     *
+     * @param predictionTime 外推时间，单位ms
+     * @param now            当前时间，与事件时间同一时基
+     */
+    void predict(long predictionTime, long now) {
+        if (mCount == 0) {
+            mPredictedX = 0;
+            mPredictedY = 0;
+            return;
+        }
+        int newest = previous(mIndex);
+        long newestTime = mTime[newest];
+        mPredictedX = mX[newest];
+        mPredictedY = mY[newest];
+        if (mCount < 3 || now - newestTime > STALE_TIME) {
+            return;
+        }
+        //以最新点为原点做最小二乘拟合，得到速度
+        float sumT = 0, sumTT = 0, sumX = 0, sumTX = 0, sumY = 0, sumTY = 0;
+        int n = 0;
+        for (int i = 0, index = newest; i < mCount; i++, index = previous(index)) {
+            long dt = mTime[index] - newestTime;
+            if (-dt > SAMPLE_WINDOW) {
+                break;
+            }
+            float x = mX[index] - mPredictedX;
+            float y = mY[index] - mPredictedY;
+            sumT += dt;
+            sumTT += (float) dt * dt;
+            sumX += x;
+            sumTX += dt * x;
+            sumY += y;
+            sumTY += dt * y;
+            n++;
+        }
+        float denominator = n * sumTT - sumT * sumT;
+        if (n < 3 || denominator <= 0) {
+            return;
+        }
+        float velocityX = (n * sumTX - sumT * sumX) / denominator;
+        float velocityY = (n * sumTY - sumT * sumY) / denominator;
+        float dx = velocityX * predictionTime;
+        float dy = velocityY * predictionTime;
+        float distance = (float) Math.hypot(dx, dy);
+        if (distance > mMaxPredictionDistance) {
+            float scale = mMaxPredictionDistance / distance;
+            dx *= scale;
+            dy *= scale;
+        }
+        mPredictedX += dx;
+        mPredictedY += dy;
+    }
+
+    float getPredictedX() {
+        return mPredictedX;
+    }
+
+    float getPredictedY() {
+        return mPredictedY;
+    }
+
+    private static int previous(int index) {
+        return (index + MAX_SAMPLES - 1) % MAX_SAMPLES;
+    }
+}
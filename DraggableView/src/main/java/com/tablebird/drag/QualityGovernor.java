@@ -0,0 +1,115 @@
+package com.tablebird.drag;
+
+import android.content.Context;
+import android.view.Display;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 按遮罩每帧的绘制耗时调整渲染质量
+ * <p>
+ * 连续多帧超过预算时逐级降低质量，连续多帧有充足余量时逐级恢复，
+ * 预算为显示刷新周期的一部分，其余时间留给应用自身的绘制
+ */
+class QualityGovernor {
+
+    /**
+     * 无法获取刷新率时使用的刷新周期，单位ns
+     */
+    private static final long DEFAULT_FRAME_PERIOD = 16_666_667L;
+
+    /**
+     * 遮罩绘制可以使用的刷新周期比例
+     */
+    private static final float BUDGET_RATIO = 0.5f;
+
+    /**
+     * 耗时低于该比例的预算时认为有余量
+     */
+    private static final float HEADROOM_RATIO = 0.5f;
+
+    /**
+     * 连续超过预算多少帧后降低质量
+     */
+    private static final int STEP_DOWN_FRAMES = 3;
+
+    /**
+     * 连续有余量多少帧后提高质量
+     */
+    private static final int STEP_UP_FRAMES = 60;
+
+    private long mFramePeriod = DEFAULT_FRAME_PERIOD;
+
+    private DraggableManager.RenderQuality mQuality = DraggableManager.RenderQuality.FULL;
+
+    /**
+     * 固定的渲染质量，不为空时不再自动调整
+     */
+    @Nullable
+    private DraggableManager.RenderQuality mFixedQuality;
+
+    private int mOverBudgetFrames;
+
+    private int mHeadroomFrames;
+
+    /**
+     * 按显示的刷新率更新帧预算
+     */
+    void updateFramePeriod(@NonNull Context context) {
+        WindowManager windowManager =
+                (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        Display display = windowManager != null ? windowManager.getDefaultDisplay() : null;
+        float refreshRate = display != null ? display.getRefreshRate() : 0;
+        mFramePeriod = refreshRate >= 1 ? (long) (1_000_000_000L / refreshRate)
+                : DEFAULT_FRAME_PERIOD;
+    }
+
+    /**
+     * 记录一帧的绘制耗时
+     *
+     * @param renderTime 耗时，单位ns
+     */
+    void onFrameRendered(long renderTime) {
+        if (mFixedQuality != null) {
+            return;
+        }
+        long budget = (long) (mFramePeriod * BUDGET_RATIO);
+        if (renderTime > budget) {
+            mHeadroomFrames = 0;
+            if (++mOverBudgetFrames >= STEP_DOWN_FRAMES) {
+                mOverBudgetFrames = 0;
+                step(1);
+            }
+        } else {
+            mOverBudgetFrames = 0;
+            if (renderTime < budget * HEADROOM_RATIO && ++mHeadroomFrames >= STEP_UP_FRAMES) {
+                mHeadroomFrames = 0;
+                step(-1);
+            }
+        }
+    }
+
+    private void step(int delta) {
+        DraggableManager.RenderQuality[] qualities = DraggableManager.RenderQuality.values();
+        int ordinal = Math.max(0, Math.min(qualities.length - 1, mQuality.ordinal() + delta));
+        mQuality = qualities[ordinal];
+    }
+
+    @NonNull
+    DraggableManager.RenderQuality getQuality() {
+        return mFixedQuality != null ? mFixedQuality : mQuality;
+    }
+
+    void setFixedQuality(@Nullable DraggableManager.RenderQuality fixedQuality) {
+        mFixedQuality = fixedQuality;
+        mOverBudgetFrames = 0;
+        mHeadroomFrames = 0;
+    }
+
+    @Nullable
+    DraggableManager.RenderQuality getFixedQuality() {
+        return mFixedQuality;
+    }
+}
@@ -0,0 +1,544 @@
+package com.tablebird.drag;
+
+import android.animation.Animator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.tablebird.drag.animation.DampingAnimator;
+import com.tablebird.drag.animation.DisappearAnimator;
+import com.tablebird.drag.animation.DisappearAnimatorSet;
+import com.tablebird.drag.element.BadgeDrawable;
+
+/**
+ * 由{@link RecyclerView.ItemDecoration}绘制的虚拟计数，列表项中不需要{@link DraggableView}
+ * <p>
+ * 计数按{@link BadgeProvider}提供的每行状态绘制，所有行共用一个{@link RecyclerView.OnItemTouchListener}
+ * 进行点击检测，只有开始拖动时才交给{@link DraggableManager}与{@link DraggableCover}处理。
+ * 拖动参数取自{@link DraggableConfig}，与{@link DraggableView}一致
+ */
+public class VirtualBadgeDecoration extends RecyclerView.ItemDecoration implements RecyclerView.OnItemTouchListener {
+
+    /**
+     * 提供每行的计数
+     */
+    public interface BadgeProvider {
+        /**
+         * 获取行的计数
+         *
+         * @param adapterPosition 行位置
+         * @return 计数，小于等于0时不显示
+         */
+        int getBadgeCount(int adapterPosition);
+
+        /**
+         * 计数被拖拽销毁，应在此清除该行的计数
+         *
+         * @param adapterPosition 行位置
+         */
+        void onBadgeDismissed(int adapterPosition);
+    }
+
+    @NonNull
+    private final BadgeProvider mBadgeProvider;
+
+    private final BadgeDrawable mBadgeDrawable;
+
+    private final Paint mBackgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private RecyclerView mRecyclerView;
+
+    /**
+     * 计数的直径
+     */
+    private int mBadgeSize;
+
+    /**
+     * 计数与行右上角的距离
+     */
+    private int mBadgeMargin;
+
+    private final int mTouchSlop;
+
+    private final int mMaxDragDistance;
+
+    private final int mCanRecoverDistance;
+
+    @ColorInt
+    private final int mDraggableBezierColor;
+
+    private final int[] mDisappearAnimationArray;
+
+    private final int mDisappearAnimationArrayId;
+
+    private final int mDisappearAnimationDuration;
+
+    private final float mDisappearAnimationHalfSize;
+
+    private final int mDampingAnimationDuration;
+
+    private final int mDampingAnimationCount;
+
+    /**
+     * 正在拖动或播放动画的行，该行不绘制计数。持有ViewHolder而不是行位置，
+     * 拖动过程中数据变化时通过{@link RecyclerView.ViewHolder#getAdapterPosition()}取得最新位置
+     */
+    @Nullable
+    private RecyclerView.ViewHolder mDragHolder;
+
+    /**
+     * 按下位置在计数上的行，移动超过mTouchSlop后才开始拖动
+     */
+    @Nullable
+    private RecyclerView.ViewHolder mPendingHolder;
+
+    private int mPointerId;
+
+    private float mDownRawX;
+
+    private float mDownRawY;
+
+    private DragSession mDragSession;
+
+    private boolean mIsExceedMaxDistance;
+
+    private final RectF mBadgeRect = new RectF();
+
+    private final Rect mTargetRect = new Rect();
+
+    private final int[] mLocation = new int[2];
+
+    private float mOffsetX;
+
+    private float mOffsetY;
+
+    private float mAnchorCenterX;
+
+    private float mAnchorCenterY;
+
+    private int mWidth;
+
+    private int mHeight;
+
+    private final Animator.AnimatorListener mFinishListener = new Animator.AnimatorListener() {
+        @Override
+        public void onAnimationStart(Animator animator) {
+
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animator) {
+            finishDrag();
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animator) {
+
+        }
+
+        @Override
+        public void onAnimationRepeat(Animator animator) {
+
+        }
+    };
+
+    private final View.OnAttachStateChangeListener mAttachStateChangeListener =
+            new View.OnAttachStateChangeListener() {
+                @Override
+                public void onViewAttachedToWindow(View v) {
+
+                }
+
+                @Override
+                public void onViewDetachedFromWindow(View v) {
+                    cancelDraggable();
+                }
+            };
+
+    public VirtualBadgeDecoration(@NonNull Context context, @NonNull BadgeProvider badgeProvider) {
+        mBadgeProvider = badgeProvider;
+        float density = context.getResources().getDisplayMetrics().density;
+        mBadgeSize = (int) (18 * density);
+        mBadgeMargin = (int) (8 * density);
+        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        mBadgeDrawable = new BadgeDrawable(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                10, context.getResources().getDisplayMetrics()), Color.WHITE);
+
+        DraggableConfig config = DraggableConfig.obtain(context, null, R.attr.DraggableViewStyle);
+        mMaxDragDistance = config.maxDragDistance;
+        mCanRecoverDistance = Math.min(mMaxDragDistance, config.canRecoverDistance);
+        mDraggableBezierColor = config.draggableBezierColor;
+        mDisappearAnimationArray = config.disappearAnimationArray;
+        mDisappearAnimationArrayId = config.disappearAnimationArrayId;
+        mDisappearAnimationDuration = config.disappearAnimationDuration;
+        mDisappearAnimationHalfSize = config.disappearAnimationHalfSize;
+        mDampingAnimationDuration = config.dampingAnimationDuration;
+        mDampingAnimationCount = config.dampingAnimationCount;
+        mBackgroundPaint.setColor(mDraggableBezierColor);
+    }
+
+    /**
+     * 绑定列表，同时添加绘制与触摸处理
+     *
+     * @param recyclerView 列表
+     */
+    public void attachToRecyclerView(@Nullable RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) {
+            return;
+        }
+        if (mRecyclerView != null) {
+            cancelDraggable();
+            mRecyclerView.removeItemDecoration(this);
+            mRecyclerView.removeOnItemTouchListener(this);
+            mRecyclerView.removeOnAttachStateChangeListener(mAttachStateChangeListener);
+        }
+        mRecyclerView = recyclerView;
+        if (mRecyclerView != null) {
+            mRecyclerView.addItemDecoration(this);
+            mRecyclerView.addOnItemTouchListener(this);
+            mRecyclerView.addOnAttachStateChangeListener(mAttachStateChangeListener);
+        }
+    }
+
+    @NonNull
+    public BadgeDrawable getBadgeDrawable() {
+        return mBadgeDrawable;
+    }
+
+    public void setBadgeColor(@ColorInt int badgeColor) {
+        mBackgroundPaint.setColor(badgeColor);
+    }
+
+    public void setBadgeSize(int badgeSize) {
+        mBadgeSize = badgeSize;
+    }
+
+    public void setBadgeMargin(int badgeMargin) {
+        mBadgeMargin = badgeMargin;
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas canvas, @NonNull RecyclerView parent,
+                           @NonNull RecyclerView.State state) {
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            View child = parent.getChildAt(i);
+            RecyclerView.ViewHolder holder = parent.getChildViewHolder(child);
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || holder == mDragHolder) {
+                continue;
+            }
+            int badgeCount = mBadgeProvider.getBadgeCount(position);
+            if (badgeCount <= 0) {
+                continue;
+            }
+            mBadgeDrawable.setCount(badgeCount);
+            calculationBadgeRect(child);
+            drawBadge(canvas, mBadgeRect);
+        }
+    }
+
+    /**
+     * 计算计数在列表中的区域，位于行的右上角
+     */
+    private void calculationBadgeRect(View child) {
+        float width = Math.max(mBadgeSize, mBadgeDrawable.getTextWidth() + mBadgeSize / 2.0f);
+        float right = child.getRight() + child.getTranslationX() - mBadgeMargin;
+        float top = child.getTop() + child.getTranslationY() + mBadgeMargin;
+        mBadgeRect.set(right - width, top, right, top + mBadgeSize);
+    }
+
+    private void drawBadge(Canvas canvas, RectF rect) {
+        float radius = rect.height() / 2.0f;
+        canvas.drawRoundRect(rect, radius, radius, mBackgroundPaint);
+        mBadgeDrawable.setBounds((int) rect.left, (int) rect.top, (int) rect.right,
+                (int) rect.bottom);
+        mBadgeDrawable.draw(canvas);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView recyclerView,
+                                         @NonNull MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                //按下时不拦截，点击与滚动仍由行和列表处理，移动超过mTouchSlop后才开始拖动
+                mPendingHolder = null;
+                if (mDragHolder != null) {
+                    return false;
+                }
+                View child = findBadgeChild(recyclerView, event.getX(), event.getY());
+                if (child != null) {
+                    mPendingHolder = recyclerView.getChildViewHolder(child);
+                    mPointerId = event.getPointerId(0);
+                    mDownRawX = event.getRawX();
+                    mDownRawY = event.getRawY();
+                }
+                return false;
+            case MotionEvent.ACTION_MOVE:
+                if (mPendingHolder == null || !isBeyondTouchSlop(event)) {
+                    return false;
+                }
+                RecyclerView.ViewHolder holder = mPendingHolder;
+                mPendingHolder = null;
+                int position = holder.getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION
+                        || mBadgeProvider.getBadgeCount(position) <= 0) {
+                    return false;
+                }
+                mDragSession = DraggableManager.getInstance().lockDraw(recyclerView, mPointerId);
+                if (mDragSession == null) {
+                    return false;
+                }
+                mDragHolder = holder;
+                mBadgeDrawable.setCount(mBadgeProvider.getBadgeCount(position));
+                calculationBadgeRect(holder.itemView);
+                startDraggable(recyclerView);
+                updateDraggable(event);
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mPendingHolder = null;
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private boolean isBeyondTouchSlop(MotionEvent event) {
+        float dx = event.getRawX() - mDownRawX;
+        float dy = event.getRawY() - mDownRawY;
+        return dx * dx + dy * dy > (float) mTouchSlop * mTouchSlop;
+    }
+
+    /**
+     * 查找计数区域包含触摸点的行
+     */
+    @Nullable
+    private View findBadgeChild(RecyclerView recyclerView, float x, float y) {
+        for (int i = recyclerView.getChildCount() - 1; i >= 0; i--) {
+            View child = recyclerView.getChildAt(i);
+            int position = recyclerView.getChildViewHolder(child).getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+            int badgeCount = mBadgeProvider.getBadgeCount(position);
+            if (badgeCount <= 0) {
+                continue;
+            }
+            mBadgeDrawable.setCount(badgeCount);
+            calculationBadgeRect(child);
+            if (x >= mBadgeRect.left - mTouchSlop && x <= mBadgeRect.right + mTouchSlop
+                    && y >= mBadgeRect.top - mTouchSlop && y <= mBadgeRect.bottom + mTouchSlop) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private void startDraggable(RecyclerView recyclerView) {
+        mIsExceedMaxDistance = false;
+        ViewParent parent = recyclerView.getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+
+        mWidth = (int) Math.ceil(mBadgeRect.width());
+        mHeight = (int) Math.ceil(mBadgeRect.height());
+        recyclerView.getLocationOnScreen(mLocation);
+        int left = mLocation[0] + (int) mBadgeRect.left;
+        int top = mLocation[1] + (int) mBadgeRect.top;
+        Rect rect = new Rect(left, top, left + mWidth, top + mHeight);
+
+        //以按下位置计算偏移，计数从手指下方开始跟随，而不是跳到超过mTouchSlop后的位置
+        mOffsetX = mDownRawX - rect.left;
+        mOffsetY = mDownRawY - rect.top;
+        mAnchorCenterX = rect.centerX();
+        mAnchorCenterY = rect.centerY();
+
+        Picture picture = DraggableManager.getInstance().obtainPicture();
+        Canvas canvas = picture.beginRecording(mWidth, mHeight);
+        mBadgeRect.offsetTo(0, 0);
+        drawBadge(canvas, mBadgeRect);
+        picture.endRecording();
+        mDragSession.start(picture, mDraggableBezierColor, rect);
+        mDragSession.setReach(mMaxDragDistance, mDisappearAnimationHalfSize);
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public void onTouchEvent(@NonNull RecyclerView recyclerView, @NonNull MotionEvent event) {
+        if (mDragSession == null) {
+            return;
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                updateDraggable(event);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                stopDraggable(recyclerView, event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void updateDraggable(MotionEvent event) {
+        Rect rect = getTargetRect(event);
+        double distance = getDistance(rect);
+        if (distance > mMaxDragDistance) {
+            mIsExceedMaxDistance = true;
+        }
+        float maxRadius = Math.min(mWidth, mHeight) / 2.0f;
+        float minRadius = maxRadius * 0.4f;
+        float anchorRadius = mIsExceedMaxDistance ? 0 :
+                (float) (1.0f - distance / mMaxDragDistance) * (maxRadius - minRadius) + minRadius;
+        mDragSession.update(rect, anchorRadius, !mIsExceedMaxDistance);
+    }
+
+    private void stopDraggable(RecyclerView recyclerView, MotionEvent event) {
+        ViewParent parent = recyclerView.getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(false);
+        }
+        Rect rect = getTargetRect(event);
+        boolean draggableValid = mIsExceedMaxDistance && getDistance(rect) > mCanRecoverDistance;
+        boolean playDamping = (draggableValid && checkDisappearAnimation())
+                || (!mIsExceedMaxDistance && checkDampingAnimation());
+        DragSession session = mDragSession;
+        mDragSession = null;
+        session.stop(rect, playDamping);
+        if (draggableValid) {
+            //拖动过程中数据可能变化，按ViewHolder取得最新位置，该行已被移除时不再通知
+            int position = mDragHolder != null ? mDragHolder.getAdapterPosition()
+                    : RecyclerView.NO_POSITION;
+            if (position != RecyclerView.NO_POSITION) {
+                mBadgeProvider.onBadgeDismissed(position);
+            }
+            if (!playDisappearAnimation(rect.exactCenterX(), rect.exactCenterY(), session)) {
+                session.end();
+                finishDrag();
+            }
+        } else if (!mIsExceedMaxDistance && checkDampingAnimation()) {
+            if (!playDampingAnimation(session)) {
+                session.end();
+                finishDrag();
+            }
+        } else {
+            finishDrag();
+        }
+    }
+
+    @NonNull
+    private Rect getTargetRect(MotionEvent event) {
+        int left = (int) (event.getRawX() - mOffsetX);
+        int top = (int) (event.getRawY() - mOffsetY);
+        mTargetRect.set(left, top, left + mWidth, top + mHeight);
+        return mTargetRect;
+    }
+
+    private double getDistance(Rect rect) {
+        return Math.sqrt(Math.pow(mAnchorCenterX - rect.centerX(), 2)
+                + Math.pow(mAnchorCenterY - rect.centerY(), 2));
+    }
+
+    private boolean checkDisappearAnimation() {
+        return mDisappearAnimationDuration > 0 && mDisappearAnimationHalfSize > 0
+                && mDisappearAnimationArray != null && mDisappearAnimationArray.length != 0;
+    }
+
+    private boolean checkDampingAnimation() {
+        return mDampingAnimationCount > 0 && mDampingAnimationDuration > 0;
+    }
+
+    private boolean playDisappearAnimation(float x, float y, DragSession session) {
+        if (!checkDisappearAnimation()) {
+            return false;
+        }
+        DisappearAnimator disappearAnimator =
+                DraggableManager.getInstance().newDisappearAnimation(mRecyclerView,
+                        session);
+        if (disappearAnimator == null) {
+            return false;
+        }
+        disappearAnimator.setDuration(mDisappearAnimationDuration);
+        disappearAnimator.setDisappear(mDisappearAnimationArrayId, mDisappearAnimationArray, 0);
+        mTargetRect.set((int) (x - mDisappearAnimationHalfSize),
+                (int) (y - mDisappearAnimationHalfSize),
+                (int) (x + mDisappearAnimationHalfSize),
+                (int) (y + mDisappearAnimationHalfSize));
+        disappearAnimator.addRect(mTargetRect);
+        DisappearAnimatorSet disappearAnimatorSet =
+                DraggableManager.getInstance().obtainDisappearAnimatorSet();
+        disappearAnimatorSet.addListener(mFinishListener);
+        disappearAnimatorSet.play(disappearAnimator);
+        disappearAnimatorSet.start();
+        return true;
+    }
+
+    private boolean playDampingAnimation(DragSession session) {
+        DampingAnimator dampingAnimator =
+                DraggableManager.getInstance().newDampingAnimation(session);
+        if (dampingAnimator == null) {
+            return false;
+        }
+        dampingAnimator.setAnchor(mAnchorCenterX - mWidth / 2.0f,
+                mAnchorCenterY - mHeight / 2.0f);
+        dampingAnimator.setDuration(mDampingAnimationDuration);
+        dampingAnimator.setDampingCount(mDampingAnimationCount);
+        dampingAnimator.addListener(mFinishListener);
+        dampingAnimator.start();
+        return true;
+    }
+
+    /**
+     * 拖动与动画结束，恢复绘制该行的计数
+     */
+    private void finishDrag() {
+        mDragHolder = null;
+        if (mRecyclerView != null) {
+            mRecyclerView.invalidate();
+        }
+    }
+
+    /**
+     * 列表离开窗口时结束正在进行的拖动，遮罩随窗口移除，不能再收到抬起事件
+     */
+    private void cancelDraggable() {
+        mPendingHolder = null;
+        DragSession session = mDragSession;
+        if (session == null) {
+            return;
+        }
+        mDragSession = null;
+        if (mRecyclerView != null) {
+            ViewParent parent = mRecyclerView.getParent();
+            if (parent != null) {
+                parent.requestDisallowInterceptTouchEvent(false);
+            }
+        }
+        session.end();
+        finishDrag();
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        if (disallowIntercept) {
+            //行内的子视图接管了触摸，不再等待拖动
+            mPendingHolder = null;
+        }
+    }
+}
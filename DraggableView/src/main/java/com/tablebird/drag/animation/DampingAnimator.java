@@ -41,6 +41,26 @@ public class DampingAnimator extends ValueAnimator implements ValueAnimator.Anim
         addUpdateListener(this);
     }
 
+    /**
+     * 重置后复用，除更新监听外的所有状态都会被清除
+     *
+     * @param targetElement 拖动图标
+     */
+    public void reset(TargetElement targetElement) {
+        removeAllListeners();
+        if (isStarted()) {
+            cancel();
+        }
+        if (mTargetElement.get() != targetElement) {
+            mTargetElement = new WeakReference<TargetElement>(targetElement);
+        }
+        mAnchorLeft = 0;
+        mAnchorTop = 0;
+        mDistanceX = 0;
+        mDistanceY = 0;
+        setStartDelay(0);
+    }
+
     public void setAnchor(float left, float top) {
         mAnchorLeft = left;
         mAnchorTop = top;
@@ -4,21 +4,24 @@ import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Picture;
 import android.graphics.PorterDuff;
 import android.graphics.Rect;
-import android.graphics.drawable.Drawable;
 import android.view.SurfaceHolder;
 
+import androidx.annotation.ArrayRes;
+import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.tablebird.drag.element.TargetElement;
-import com.tablebird.drag.ref.WeakDrawableCache;
+import com.tablebird.drag.ref.CachedFrameSource;
+import com.tablebird.drag.ref.FrameSetRegistry;
+import com.tablebird.drag.ref.FrameSource;
+import com.tablebird.drag.ref.StreamingFrameSource;
 
 import java.lang.ref.WeakReference;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author tablebird
@@ -27,29 +30,225 @@ import java.util.Set;
 
 public class DisappearAnimator extends ValueAnimator implements ValueAnimator.AnimatorUpdateListener {
 
+    /**
+     * 帧数超过该值时边播放边解码，不再一次性解码所有帧
+     */
+    private static final int STREAMING_FRAME_COUNT = 12;
+
+    /**
+     * 由外部统一绘制时的回调
+     */
+    public interface Callback {
+        /**
+         * 动画画面发生变化，需要调用{@link #drawFrame(Canvas)}重新绘制
+         *
+         * @param animator 消失动画
+         */
+        void invalidate(DisappearAnimator animator);
+    }
+
+    /**
+     * 不为空时交给回调统一绘制，不再单独锁定surface
+     */
+    private Callback mCallback;
+
     private int[] mResIds;
+
+    /**
+     * 帧数组资源，用于在视图之间共享解码后的帧
+     */
+    private int mArrayResId;
+
+    /**
+     * 帧的着色颜色，透明时不着色
+     */
+    @ColorInt
+    private int mTint;
+
+    private FrameSource mFrameSource;
     private WeakReference<Context> mContext;
-    @NonNull
+    /**
+     * 没有{@link #mCallback}时直接绘制的surface，为空时只能由回调绘制
+     */
+    @Nullable
     private SurfaceHolder mSurfaceHolder;
-    private Set<Rect> mDstRect = new HashSet<>();
 
-    @Nullable
-    private Picture mPlaceholderPicture;
-    private Canvas mPlaceholderCanvas;
+    /**
+     * 动画区域，复用{@link #mRectCache}中的对象
+     */
+    private List<Rect> mDstRect = new ArrayList<>();
+
+    /**
+     * 已分配的动画区域，重置后继续复用
+     */
+    private List<Rect> mRectCache = new ArrayList<>();
+
+    /**
+     * 等待播放的跟随视图占位图，由{@link DisappearAnimatorSet}共享
+     */
+    private PlaceholderLayer mPlaceholderLayer;
+
+    /**
+     * 通过{@link #addTargetElement(TargetElement)}添加的占位图，整个动画期间都会绘制
+     */
+    private ArrayList<TargetElement> mTargetElements = new ArrayList<>();
 
     private int mTranslateX = 0;
 
     private int mTranslateY = 0;
 
-    public DisappearAnimator(@NonNull Context context, @NonNull SurfaceHolder surfaceHolder) {
+    /**
+     * 最后一次绘制的帧，帧序号未变化时不重复绘制
+     */
+    private int mDrawnFrameIndex = -1;
+
+    /**
+     * 画面是否需要重绘，例如占位图发生变化
+     */
+    private boolean mDamaged = true;
+
+    /**
+     * 粒子模式的粒子数量，大于0时使用程序化粒子代替帧动画
+     */
+    private int mParticleBudget;
+
+    @ColorInt
+    private int mParticleColor;
+
+    private ParticleSystem mParticleSystem;
+
+    /**
+     * 上一次推进粒子时的播放时间
+     */
+    private long mParticlePlayTime;
+
+    /**
+     * 每隔多少帧绘制一次，用于降低渲染质量
+     */
+    private int mFrameStep = 1;
+
+    /**
+     * 粒子模式下的更新次数，配合{@link #mFrameStep}跳过绘制
+     */
+    private int mUpdateCount;
+
+    /**
+     * 是否绘制等待播放的占位图
+     */
+    private boolean mPlaceholderEnable = true;
+
+    /**
+     * 创建只由{@link Callback}绘制的动画
+     *
+     * @param context 上下文
+     */
+    public DisappearAnimator(@NonNull Context context) {
+        this(context, null);
+    }
+
+    public DisappearAnimator(@NonNull Context context, @Nullable SurfaceHolder surfaceHolder) {
         mContext = new WeakReference<>(context);
         mSurfaceHolder = surfaceHolder;
+        //帧序号由播放时间计算，动画值仅用于驱动更新
+        setFloatValues(0.0f, 1.0f);
         addUpdateListener(this);
     }
 
+    /**
+     * 重置后放回对象池，除更新监听外的所有状态都会被清除
+     */
+    public void reset() {
+        removeAllListeners();
+        if (isStarted()) {
+            super.cancel();
+        }
+        stopAnimation();
+        mCallback = null;
+        mTranslateX = 0;
+        mTranslateY = 0;
+        mFrameStep = 1;
+        mPlaceholderEnable = true;
+        setStartDelay(0);
+    }
+
+    /**
+     * 从对象池取出后重新设置绘制目标
+     *
+     * @param context       上下文
+     * @param surfaceHolder 绘制的surface，为空时只能由{@link Callback}绘制
+     */
+    public void setSurface(@NonNull Context context, @Nullable SurfaceHolder surfaceHolder) {
+        if (mContext.get() != context) {
+            mContext = new WeakReference<>(context);
+            releaseFrameSource();
+        }
+        mSurfaceHolder = surfaceHolder;
+        mDamaged = true;
+    }
+
     public void setDisappear(@NonNull int[] resIds) {
+        setDisappear(0, resIds, 0);
+    }
+
+    /**
+     * 设置消失动画帧
+     *
+     * @param arrayResId 帧数组资源，相同资源的帧只解码一次，为0时不共享
+     * @param resIds     帧资源
+     * @param tint       绘制时的着色颜色，透明时不着色
+     */
+    public void setDisappear(@ArrayRes int arrayResId, @NonNull int[] resIds, @ColorInt int tint) {
+        if (mResIds != resIds || mArrayResId != arrayResId) {
+            releaseFrameSource();
+        }
         mResIds = resIds;
-        setIntValues(0, mResIds.length - 1);
+        mArrayResId = arrayResId;
+        mTint = tint;
+        mParticleBudget = 0;
+        mDamaged = true;
+    }
+
+    /**
+     * 使用程序化粒子爆炸代替帧动画
+     *
+     * @param color          粒子颜色
+     * @param particleBudget 所有爆炸区域共享的粒子数量
+     */
+    public void setParticles(@ColorInt int color, int particleBudget) {
+        releaseFrameSource();
+        mResIds = null;
+        mParticleColor = color;
+        mParticleBudget = Math.max(1, particleBudget);
+        mDamaged = true;
+    }
+
+    private boolean isParticleMode() {
+        return mParticleBudget > 0;
+    }
+
+    /**
+     * 设置绘制间隔，大于1时帧动画只显示间隔的帧，粒子只在间隔的更新中绘制
+     *
+     * @param frameStep 绘制间隔，最小为1
+     */
+    public void setFrameStep(int frameStep) {
+        mFrameStep = Math.max(1, frameStep);
+    }
+
+    /**
+     * 设置是否绘制等待播放的跟随视图占位图
+     *
+     * @param placeholderEnable true 绘制
+     */
+    public void setPlaceholderEnable(boolean placeholderEnable) {
+        if (mPlaceholderEnable != placeholderEnable) {
+            mPlaceholderEnable = placeholderEnable;
+            mDamaged = true;
+        }
+    }
+
+    public void setCallback(Callback callback) {
+        mCallback = callback;
     }
 
     public void setTranslate(int x,int y) {
@@ -57,62 +256,278 @@ public class DisappearAnimator extends ValueAnimator implements ValueAnimator.An
         mTranslateY = y;
     }
 
+    /**
+     * 添加动画区域，区域会被复制，调用方可以复用传入的对象
+     *
+     * @param rect 动画区域
+     */
     public void addRect(Rect rect) {
-        mDstRect.add(rect);
+        for (Rect dstRect : mDstRect) {
+            if (dstRect.equals(rect)) {
+                return;
+            }
+        }
+        Rect dstRect;
+        if (mDstRect.size() < mRectCache.size()) {
+            dstRect = mRectCache.get(mDstRect.size());
+        } else {
+            dstRect = new Rect();
+            mRectCache.add(dstRect);
+        }
+        dstRect.set(rect);
+        mDstRect.add(dstRect);
     }
 
+    /**
+     * 添加在整个动画期间绘制的占位图
+     *
+     * @param targetElement 占位图
+     * @deprecated 占位图改由{@link DisappearAnimatorSet.Builder#addPlaceholder(Rect,
+     * android.graphics.Picture, DisappearAnimator)}管理，在对应的消失动画开始时移除
+     */
+    @Deprecated
     public void addTargetElement(TargetElement targetElement) {
         if (targetElement == null) {
             return;
         }
-        if (mPlaceholderPicture == null) {
-            mPlaceholderPicture = new Picture();
-            Rect rect = mSurfaceHolder.getSurfaceFrame();
+        mTargetElements.add(targetElement);
+        mDamaged = true;
+    }
 
-            mPlaceholderCanvas = mPlaceholderPicture.beginRecording(rect.width(), rect.height());
+    /**
+     * 克隆动画区域与帧设置，帧、粒子与占位图不共享，在克隆第一次绘制时重新准备
+     *
+     * @return 新的消失动画
+     */
+    @Override
+    public DisappearAnimator clone() {
+        DisappearAnimator anim = (DisappearAnimator) super.clone();
+        anim.removeUpdateListener(this);
+        anim.addUpdateListener(anim);
+        anim.mDstRect = new ArrayList<>(mDstRect.size());
+        anim.mRectCache = new ArrayList<>(mDstRect.size());
+        for (Rect rect : mDstRect) {
+            anim.addRect(rect);
         }
+        anim.mTargetElements = new ArrayList<>(mTargetElements);
+        anim.mPlaceholderLayer = null;
+        anim.mFrameSource = null;
+        anim.mParticleSystem = null;
+        anim.mParticlePlayTime = 0;
+        anim.mUpdateCount = 0;
+        anim.mDrawnFrameIndex = -1;
+        anim.mDamaged = true;
+        return anim;
+    }
 
-        targetElement.draw(mPlaceholderCanvas);
+    void setPlaceholderLayer(PlaceholderLayer placeholderLayer) {
+        mPlaceholderLayer = placeholderLayer;
+        mDamaged = true;
     }
 
     @Override
     public void onAnimationUpdate(ValueAnimator animation) {
-        int curValue = (int) animation.getAnimatedValue();
-        draw(curValue);
+        if (isParticleMode()) {
+            long playTime = Math.max(0, animation.getCurrentPlayTime());
+            mParticleSystem.step((playTime - mParticlePlayTime) / 1000.0f);
+            mParticlePlayTime = playTime;
+            if (mUpdateCount++ % mFrameStep == 0) {
+                draw(0);
+            }
+            return;
+        }
+        if (mFrameSource == null || mFrameSource.getFrameCount() == 0) {
+            return;
+        }
+        int index = getFrameIndex(animation.getCurrentPlayTime(), animation.getDuration(),
+                mFrameSource.getFrameCount());
+        index -= index % mFrameStep;
+        //未解码完成的帧直接跳过，继续显示已有的帧
+        index = mFrameSource.getAvailableFrame(index);
+        if (index >= 0 && (index != mDrawnFrameIndex || mDamaged)) {
+            draw(index);
+        }
+    }
+
+    /**
+     * 根据播放时间计算帧序号，每帧的显示时间相同
+     *
+     * @param playTime   已播放时间
+     * @param duration   动画时长
+     * @param frameCount 帧数
+     * @return 帧序号
+     */
+    private static int getFrameIndex(long playTime, long duration, int frameCount) {
+        if (duration <= 0) {
+            return frameCount - 1;
+        }
+        long index = Math.max(0, playTime) * frameCount / duration;
+        return (int) Math.min(frameCount - 1, index);
     }
 
     private void draw(int index) {
-        if (mResIds == null || mDstRect.isEmpty()) {
+        if (mDstRect.isEmpty()) {
+            return;
+        }
+        if (!isParticleMode() && (mFrameSource == null || index < 0
+                || index >= mFrameSource.getFrameCount())) {
             return;
         }
         Context context = mContext.get();
-        if (context != null && isRunning() && index >= 0 && index < mResIds.length) {
+        if (context != null && isRunning()) {
+            mDrawnFrameIndex = index;
+            mDamaged = false;
+            if (mCallback != null) {
+                mCallback.invalidate(this);
+                return;
+            }
+            if (mSurfaceHolder == null || !mSurfaceHolder.getSurface().isValid()) {
+                return;
+            }
             Canvas canvas = mSurfaceHolder.lockCanvas();
             if (canvas != null) {
                 canvas.translate(-mTranslateX, -mTranslateY);
                 canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
-                if (mPlaceholderPicture != null) {
-                    mPlaceholderPicture.draw(canvas);
-                }
-                Drawable drawable = WeakDrawableCache.getDrawable(context, mResIds[index]);
-                for (Rect viewRect : mDstRect) {
-                    drawable.setBounds(viewRect);
-                    drawable.draw(canvas);
-                }
+                drawFrame(canvas);
                 mSurfaceHolder.unlockCanvasAndPost(canvas);
             }
         }
     }
 
+    /**
+     * 在已定位的画布上绘制当前帧，不清除画布
+     *
+     * @param canvas 画布
+     */
+    public void drawFrame(@NonNull Canvas canvas) {
+        if (!isRunning() || mDrawnFrameIndex < 0) {
+            return;
+        }
+        if (mPlaceholderEnable) {
+            for (int i = 0, size = mTargetElements.size(); i < size; i++) {
+                mTargetElements.get(i).draw(canvas);
+            }
+            if (mPlaceholderLayer != null) {
+                mPlaceholderLayer.draw(canvas);
+            }
+        }
+        if (isParticleMode()) {
+            mParticleSystem.draw(canvas, getAnimatedFraction());
+        } else if (mFrameSource != null) {
+            for (Rect viewRect : mDstRect) {
+                mFrameSource.draw(canvas, mDrawnFrameIndex, viewRect);
+            }
+        }
+    }
+
+    /**
+     * 将当前帧绘制的区域合并到指定区域，包括等待播放的占位图
+     *
+     * @param bounds 区域
+     */
+    public void unionBounds(@NonNull Rect bounds) {
+        if (!isRunning()) {
+            return;
+        }
+        for (int i = 0, size = mTargetElements.size(); i < size; i++) {
+            Rect rect = mTargetElements.get(i).getRect();
+            if (rect != null) {
+                bounds.union(rect);
+            }
+        }
+        if (mPlaceholderLayer != null) {
+            mPlaceholderLayer.unionBounds(bounds);
+        }
+        if (isParticleMode()) {
+            mParticleSystem.unionBounds(bounds);
+        } else {
+            for (int i = 0, size = mDstRect.size(); i < size; i++) {
+                bounds.union(mDstRect.get(i));
+            }
+        }
+    }
+
+    /**
+     * 将所有爆炸区域合并到指定区域，开始播放前也可以调用
+     *
+     * @param bounds 区域
+     */
+    public void unionDestinationBounds(@NonNull Rect bounds) {
+        for (int i = 0, size = mDstRect.size(); i < size; i++) {
+            bounds.union(mDstRect.get(i));
+        }
+    }
+
     @Override
     public void start() {
-        mPlaceholderCanvas = null;
-        if (mPlaceholderPicture != null) {
-            mPlaceholderPicture.endRecording();
+        mDrawnFrameIndex = -1;
+        mDamaged = true;
+        mUpdateCount = 0;
+        if (isParticleMode()) {
+            emitParticles();
+        } else {
+            prepareFrameSource();
         }
         super.start();
     }
 
+    /**
+     * 按动画区域准备帧来源，较长的帧序列使用{@link StreamingFrameSource}
+     */
+    private void prepareFrameSource() {
+        Context context = mContext.get();
+        if (mResIds == null || context == null) {
+            return;
+        }
+        if (mFrameSource == null) {
+            if (mResIds.length > STREAMING_FRAME_COUNT) {
+                mFrameSource = new StreamingFrameSource(context.getResources(), mResIds);
+            } else {
+                mFrameSource = new CachedFrameSource(context, mArrayResId, mResIds);
+            }
+        }
+        int width = 0;
+        int height = 0;
+        for (Rect viewRect : mDstRect) {
+            width = Math.max(width, viewRect.width());
+            height = Math.max(height, viewRect.height());
+        }
+        mFrameSource.prepare(width, height);
+        mFrameSource.setColorFilter(FrameSetRegistry.getTintFilter(mTint));
+    }
+
+    private void releaseFrameSource() {
+        if (mFrameSource != null) {
+            mFrameSource.release();
+            mFrameSource = null;
+        }
+    }
+
+    /**
+     * 按爆炸区域平分粒子数量并发射，余数分给靠前的区域，
+     * 区域多于粒子数量时每个区域至少发射一个粒子
+     */
+    private void emitParticles() {
+        int size = mDstRect.size();
+        int capacity = Math.max(mParticleBudget, size);
+        if (mParticleSystem == null) {
+            mParticleSystem = new ParticleSystem(capacity);
+        } else {
+            mParticleSystem.ensureCapacity(capacity);
+            mParticleSystem.reset();
+        }
+        mParticleSystem.setColor(mParticleColor);
+        mParticlePlayTime = 0;
+        if (size == 0) {
+            return;
+        }
+        int count = mParticleBudget / size;
+        int remainder = mParticleBudget % size;
+        for (int i = 0; i < size; i++) {
+            mParticleSystem.emit(mDstRect.get(i), Math.max(1, i < remainder ? count + 1 : count));
+        }
+    }
+
     @Override
     public void cancel() {
         super.cancel();
@@ -126,7 +541,13 @@ public class DisappearAnimator extends ValueAnimator implements ValueAnimator.An
     }
 
     private void stopAnimation() {
+        if (mFrameSource != null) {
+            mFrameSource.release();
+        }
         mDstRect.clear();
-        mPlaceholderPicture = null;
+        mTargetElements.clear();
+        mPlaceholderLayer = null;
+        mDrawnFrameIndex = -1;
+        mDamaged = true;
     }
 }
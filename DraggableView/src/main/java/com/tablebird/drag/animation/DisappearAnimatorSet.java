@@ -1,208 +1,452 @@
 package com.tablebird.drag.animation;
 
 import android.animation.Animator;
-import android.animation.AnimatorSet;
 import android.animation.TimeInterpolator;
-import android.graphics.Bitmap;
+import android.animation.ValueAnimator;
+import android.graphics.Picture;
 import android.graphics.Rect;
 import android.os.Build;
 
+import androidx.annotation.NonNull;
+
 import com.tablebird.drag.element.TargetElement;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
+ * 依次播放的消失动画集合，可重置后复用
+ * <p>
+ * 默认前一个动画结束后才开始下一个，设置{@link #setStagger(long)}后按固定间隔开始，
+ * 相邻的动画可以重叠，每个动画的时长不变
+ *
  * @author tablebird
  * @date 2019/8/14
  */
-public class DisappearAnimatorSet extends Animator {
-    private AnimatorSet mAnimatorSet;
+public class DisappearAnimatorSet extends Animator implements Animator.AnimatorListener,
+        ValueAnimator.AnimatorUpdateListener {
+
+    /**
+     * 按播放顺序排列的消失动画
+     */
+    private ArrayList<DisappearAnimator> mAnimators = new ArrayList<>();
+
+    /**
+     * 分发回调时复用的监听列表
+     */
+    private ArrayList<AnimatorListener> mDispatchListeners = new ArrayList<>();
+
+    /**
+     * 所有子动画共享的占位图
+     */
+    private PlaceholderLayer mPlaceholderLayer = new PlaceholderLayer();
+
+    /**
+     * 最后开始播放的子动画
+     */
+    private int mCurrentIndex = -1;
+
+    /**
+     * 已结束的子动画数量
+     */
+    private int mEndedCount;
+
+    /**
+     * 相邻子动画开始的间隔，单位ms，小于0时前一个结束后才开始下一个
+     */
+    private long mStagger = -1;
+
+    private boolean mStarted;
+
+    private boolean mCanceled;
+
+    private long mStartDelay;
+
+    private long mDuration = -1;
+
+    private TimeInterpolator mInterpolator;
 
     public DisappearAnimatorSet() {
-        mAnimatorSet = new AnimatorSet();
+    }
+
+    /**
+     * 重置后复用，所有动画与监听都会被移除
+     */
+    public void reset() {
+        removeAllListeners();
+        if (mStarted) {
+            cancel();
+        }
+        mAnimators.clear();
+        mDispatchListeners.clear();
+        mPlaceholderLayer.clear();
+        mCurrentIndex = -1;
+        mEndedCount = 0;
+        mStagger = -1;
+        mStarted = false;
+        mCanceled = false;
+        mStartDelay = 0;
+        mDuration = -1;
+        mInterpolator = null;
+    }
+
+    /**
+     * @return 按播放顺序排列的消失动画
+     */
+    public List<DisappearAnimator> getChildAnimators() {
+        return mAnimators;
     }
 
     @Override
     public void start() {
-        Set<Animator.AnimatorListener> animatorListenerSet = new HashSet<>();
-        for (Animator animator: mAnimatorSet.getChildAnimations()) {
+        if (mStarted) {
+            return;
+        }
+        for (DisappearAnimator animator : mAnimators) {
             ArrayList<AnimatorListener> animatorListeners = animator.getListeners();
-            animatorListenerSet.addAll(animatorListeners);
-            animator.removeAllListeners();
+            if (animatorListeners != null) {
+                for (AnimatorListener animatorListener : animatorListeners) {
+                    ArrayList<AnimatorListener> listeners = getListeners();
+                    if (listeners == null || !listeners.contains(animatorListener)) {
+                        super.addListener(animatorListener);
+                    }
+                }
+                animator.removeAllListeners();
+            }
+            animator.addListener(this);
+            if (mStagger >= 0) {
+                animator.addUpdateListener(this);
+            }
+            if (mDuration >= 0) {
+                animator.setDuration(mDuration);
+            }
+            if (mInterpolator != null) {
+                animator.setInterpolator(mInterpolator);
+            }
+        }
+        mStarted = true;
+        mCanceled = false;
+        mCurrentIndex = 0;
+        mEndedCount = 0;
+        dispatchStart();
+        if (mAnimators.isEmpty()) {
+            finish();
+            return;
         }
-        for (AnimatorListener animatorListener : animatorListenerSet) {
-            mAnimatorSet.addListener(animatorListener);
+        DisappearAnimator first = mAnimators.get(0);
+        first.setStartDelay(mStartDelay);
+        startChild(first);
+        if (mStagger == 0) {
+            startStaggered(Long.MAX_VALUE);
         }
-        mAnimatorSet.start();
     }
 
     @Override
     public void cancel() {
-        mAnimatorSet.cancel();
+        if (!mStarted) {
+            return;
+        }
+        mCanceled = true;
+        copyListeners();
+        for (AnimatorListener animatorListener : mDispatchListeners) {
+            animatorListener.onAnimationCancel(this);
+        }
+        mDispatchListeners.clear();
+        for (int i = 0; i <= mCurrentIndex && i < mAnimators.size(); i++) {
+            DisappearAnimator animator = mAnimators.get(i);
+            if (animator.isStarted()) {
+                animator.cancel();
+            }
+        }
+        finish();
     }
 
     @Override
     public void end() {
-        mAnimatorSet.end();
+        if (!mStarted) {
+            return;
+        }
+        mCanceled = true;
+        for (int i = 0; i <= mCurrentIndex && i < mAnimators.size(); i++) {
+            DisappearAnimator animator = mAnimators.get(i);
+            if (animator.isStarted()) {
+                animator.end();
+            }
+        }
+        finish();
     }
 
     @Override
     public void pause() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            mAnimatorSet.pause();
+            super.pause();
+            if (!mStarted) {
+                return;
+            }
+            for (int i = 0; i <= mCurrentIndex && i < mAnimators.size(); i++) {
+                DisappearAnimator animator = mAnimators.get(i);
+                if (animator.isStarted()) {
+                    animator.pause();
+                }
+            }
         }
     }
 
     @Override
     public void resume() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            mAnimatorSet.resume();
+            super.resume();
+            if (!mStarted) {
+                return;
+            }
+            for (int i = 0; i <= mCurrentIndex && i < mAnimators.size(); i++) {
+                DisappearAnimator animator = mAnimators.get(i);
+                if (animator.isStarted()) {
+                    animator.resume();
+                }
+            }
         }
     }
 
     @Override
-    public boolean isPaused() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            return mAnimatorSet.isPaused();
+    public long getTotalDuration() {
+        if (mStagger >= 0) {
+            //最后结束的子动画决定总时长
+            long totalDuration = mStartDelay;
+            for (int i = 0, size = mAnimators.size(); i < size; i++) {
+                totalDuration = Math.max(totalDuration,
+                        mStartDelay + i * mStagger + getChildDuration(mAnimators.get(i)));
+            }
+            return totalDuration;
         }
-        return super.isPaused();
+        long totalDuration = mStartDelay;
+        for (DisappearAnimator animator : mAnimators) {
+            totalDuration += animator.getStartDelay() + getChildDuration(animator);
+        }
+        return totalDuration;
     }
 
-    @Override
-    public long getTotalDuration() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-            return mAnimatorSet.getTotalDuration();
-        }
-        return super.getTotalDuration();
+    private long getChildDuration(DisappearAnimator animator) {
+        return mDuration >= 0 ? mDuration : animator.getDuration();
+    }
+
+    /**
+     * 设置相邻子动画开始的间隔，用于限制总时长而不缩短每个动画，开始播放前设置
+     *
+     * @param stagger 间隔，单位ms，小于0时前一个结束后才开始下一个
+     */
+    public void setStagger(long stagger) {
+        mStagger = stagger;
+    }
+
+    public long getStagger() {
+        return mStagger;
     }
 
     @Override
     public TimeInterpolator getInterpolator() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
-            return mAnimatorSet.getInterpolator();
-        }
-        return super.getInterpolator();
+        return mInterpolator;
     }
 
     @Override
     public boolean isStarted() {
-        return mAnimatorSet.isStarted();
+        return mStarted;
     }
 
     @Override
-    public void addListener(AnimatorListener listener) {
-        mAnimatorSet.addListener(listener);
+    public long getStartDelay() {
+        return mStartDelay;
     }
 
     @Override
-    public void removeListener(AnimatorListener listener) {
-        mAnimatorSet.removeListener(listener);
+    public void setStartDelay(long l) {
+        mStartDelay = l;
     }
 
     @Override
-    public ArrayList<AnimatorListener> getListeners() {
-        return mAnimatorSet.getListeners();
+    public Animator setDuration(long l) {
+        mDuration = l;
+        return this;
     }
 
     @Override
-    public void addPauseListener(AnimatorPauseListener listener) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            mAnimatorSet.addPauseListener(listener);
-        } else {
-            super.addPauseListener(listener);
-        }
+    public long getDuration() {
+        return mDuration;
     }
 
     @Override
-    public void removePauseListener(AnimatorPauseListener listener) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            mAnimatorSet.removePauseListener(listener);
-        } else {
-            super.removePauseListener(listener);
-        }
+    public void setInterpolator(TimeInterpolator timeInterpolator) {
+        mInterpolator = timeInterpolator;
     }
 
     @Override
-    public void removeAllListeners() {
-        mAnimatorSet.removeAllListeners();
+    public boolean isRunning() {
+        return mStarted;
     }
 
-    @Override
-    public Animator clone() {
-        return mAnimatorSet.clone();
+    /**
+     * 开始播放子动画，并移除该动画对应的占位图
+     */
+    private void startChild(DisappearAnimator animator) {
+        if (!mPlaceholderLayer.isEmpty()) {
+            mPlaceholderLayer.drop(animator);
+            //重叠播放时占位图只由最后开始的动画绘制
+            for (int i = 0; i < mCurrentIndex && i < mAnimators.size(); i++) {
+                mAnimators.get(i).setPlaceholderLayer(null);
+            }
+            animator.setPlaceholderLayer(mPlaceholderLayer);
+        }
+        animator.start();
     }
 
-    @Override
-    public void setupStartValues() {
-        mAnimatorSet.setupStartValues();
+    /**
+     * 按间隔开始已到时间的子动画
+     *
+     * @param playTime 最后开始的子动画已播放的时间
+     */
+    private void startStaggered(long playTime) {
+        while (mStarted && !mCanceled && playTime >= mStagger
+                && mCurrentIndex + 1 < mAnimators.size()) {
+            mCurrentIndex++;
+            playTime -= mStagger;
+            startChild(mAnimators.get(mCurrentIndex));
+        }
     }
 
-    @Override
-    public void setupEndValues() {
-        mAnimatorSet.setupEndValues();
+    private void dispatchStart() {
+        copyListeners();
+        for (AnimatorListener animatorListener : mDispatchListeners) {
+            animatorListener.onAnimationStart(this);
+        }
+        mDispatchListeners.clear();
     }
 
-    @Override
-    public void setTarget(Object target) {
-        mAnimatorSet.setTarget(target);
+    private void finish() {
+        mStarted = false;
+        if (mStagger >= 0) {
+            for (int i = 0, size = mAnimators.size(); i < size; i++) {
+                mAnimators.get(i).removeUpdateListener(this);
+            }
+        }
+        copyListeners();
+        for (AnimatorListener animatorListener : mDispatchListeners) {
+            animatorListener.onAnimationEnd(this);
+        }
+        mDispatchListeners.clear();
     }
 
-    @Override
-    public long getStartDelay() {
-        return mAnimatorSet.getStartDelay();
+    private void copyListeners() {
+        mDispatchListeners.clear();
+        ArrayList<AnimatorListener> listeners = getListeners();
+        if (listeners != null) {
+            mDispatchListeners.addAll(listeners);
+        }
     }
 
     @Override
-    public void setStartDelay(long l) {
-        mAnimatorSet.setStartDelay(l);
+    public void onAnimationStart(Animator animation) {
     }
 
     @Override
-    public Animator setDuration(long l) {
-        mAnimatorSet.setDuration(l);
-        return this;
+    public void onAnimationEnd(Animator animation) {
+        if (mStagger >= 0 && animation instanceof ValueAnimator) {
+            ((ValueAnimator) animation).removeUpdateListener(this);
+        }
+        if (!mStarted || mCanceled || mCurrentIndex < 0 || mCurrentIndex >= mAnimators.size()) {
+            return;
+        }
+        if (mStagger >= 0) {
+            if (mAnimators.indexOf(animation) < 0) {
+                return;
+            }
+            mEndedCount++;
+            if (mEndedCount >= mAnimators.size()) {
+                finish();
+            } else if (animation == mAnimators.get(mCurrentIndex)
+                    && mCurrentIndex + 1 < mAnimators.size()) {
+                //时长短于间隔时不等待，直接开始下一个
+                mCurrentIndex++;
+                startChild(mAnimators.get(mCurrentIndex));
+            }
+            return;
+        }
+        if (mAnimators.get(mCurrentIndex) != animation) {
+            return;
+        }
+        mCurrentIndex++;
+        if (mCurrentIndex < mAnimators.size()) {
+            startChild(mAnimators.get(mCurrentIndex));
+        } else {
+            finish();
+        }
     }
 
     @Override
-    public long getDuration() {
-        return mAnimatorSet.getDuration();
+    public void onAnimationCancel(Animator animation) {
     }
 
     @Override
-    public void setInterpolator(TimeInterpolator timeInterpolator) {
-        mAnimatorSet.setInterpolator(timeInterpolator);
+    public void onAnimationRepeat(Animator animation) {
     }
 
     @Override
-    public boolean isRunning() {
-        return mAnimatorSet.isRunning();
+    public void onAnimationUpdate(ValueAnimator animation) {
+        if (mCurrentIndex >= 0 && mCurrentIndex < mAnimators.size()
+                && animation == mAnimators.get(mCurrentIndex)) {
+            startStaggered(animation.getCurrentPlayTime());
+        }
     }
 
+    /**
+     * 添加消失动画
+     *
+     * @param animator 消失动画
+     * @return 绑定该动画的{@link Builder}，每次调用都会新建
+     */
     public Builder play(DisappearAnimator animator) {
         if (animator != null) {
-            return new Builder(mAnimatorSet.play(animator), animator);
+            mAnimators.add(animator);
+            return new Builder(animator);
         }
         return null;
     }
 
-    private void addPlaceholder(TargetElement targetElement) {
-        ArrayList<Animator> animators = mAnimatorSet.getChildAnimations();
-        for (Animator animator : animators) {
-            DisappearAnimator disappearAnimator = (DisappearAnimator) animator;
-            disappearAnimator.addTargetElement(targetElement);
+    /**
+     * 克隆未开始播放的动画集合，子动画逐个克隆，监听被复制，占位图不复制
+     *
+     * @return 新的动画集合
+     */
+    @Override
+    public DisappearAnimatorSet clone() {
+        DisappearAnimatorSet anim = (DisappearAnimatorSet) super.clone();
+        anim.mAnimators = new ArrayList<>(mAnimators.size());
+        for (DisappearAnimator animator : mAnimators) {
+            DisappearAnimator child = animator.clone();
+            child.removeListener(this);
+            child.removeUpdateListener(this);
+            anim.mAnimators.add(child);
         }
+        anim.mDispatchListeners = new ArrayList<>();
+        anim.mPlaceholderLayer = new PlaceholderLayer();
+        anim.mCurrentIndex = -1;
+        anim.mEndedCount = 0;
+        anim.mStarted = false;
+        anim.mCanceled = false;
+        return anim;
+    }
+
+    /**
+     * @return 是否有等待播放的占位图
+     */
+    public boolean hasPlaceholders() {
+        return !mPlaceholderLayer.isEmpty();
     }
 
     public class Builder {
 
-        private AnimatorSet.Builder mBuilder;
         private DisappearAnimator mDisappearAnimator;
 
-        Builder(AnimatorSet.Builder builder, DisappearAnimator disappearAnimator) {
-            mBuilder = builder;
+        Builder(DisappearAnimator disappearAnimator) {
             mDisappearAnimator = disappearAnimator;
         }
 
@@ -211,11 +455,17 @@ public class DisappearAnimatorSet extends Animator {
             return this;
         }
 
+        /**
+         * 添加在当前动画之后播放的消失动画，之后的{@link #with(Rect)}作用于该动画
+         *
+         * @param animator 消失动画
+         * @return this
+         */
         public Builder before(DisappearAnimator animator) {
-            mBuilder.before(animator);
-            Builder builder = play(animator);
-            mBuilder = builder.mBuilder;
-            mDisappearAnimator = builder.mDisappearAnimator;
+            if (animator != null) {
+                mAnimators.add(animator);
+                mDisappearAnimator = animator;
+            }
             return this;
         }
 
@@ -223,8 +473,46 @@ public class DisappearAnimatorSet extends Animator {
             DisappearAnimatorSet.this.addListener(listener);
         }
 
+        /**
+         * 获取用于录制占位图的{@link Picture}，随动画集合复用，
+         * 录制后交给{@link #addPlaceholder(Rect, Picture, DisappearAnimator)}，
+         * 未使用时交给{@link #recyclePlaceholderPicture(Picture)}
+         *
+         * @return 可重新录制的Picture
+         */
+        @NonNull
+        public Picture obtainPlaceholderPicture() {
+            return mPlaceholderLayer.obtainPicture();
+        }
+
+        public void recyclePlaceholderPicture(@NonNull Picture picture) {
+            mPlaceholderLayer.recyclePicture(picture);
+        }
+
+        /**
+         * 添加占位图，占位图在对应的消失动画开始前一直显示
+         *
+         * @param rect    占位图在屏幕上的区域，会被复制
+         * @param picture 跟随视图的快照，由{@link #obtainPlaceholderPicture()}获取
+         * @param owner   跟随视图的消失动画
+         */
+        public void addPlaceholder(@NonNull Rect rect, @NonNull Picture picture,
+                                   @NonNull DisappearAnimator owner) {
+            mPlaceholderLayer.add(rect, picture, owner);
+        }
+
+        /**
+         * 添加在已加入的所有消失动画播放期间一直绘制的占位图
+         *
+         * @param targetElement 占位图
+         * @deprecated 使用{@link #addPlaceholder(Rect, Picture, DisappearAnimator)}，
+         * 占位图在对应的消失动画开始时移除
+         */
+        @Deprecated
         public void addPlaceholder(TargetElement targetElement) {
-            DisappearAnimatorSet.this.addPlaceholder(targetElement);
+            for (DisappearAnimator animator : mAnimators) {
+                animator.addTargetElement(targetElement);
+            }
         }
     }
 }
@@ -0,0 +1,186 @@
+package com.tablebird.drag.animation;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+
+/**
+ * 程序化爆炸粒子，粒子状态保存在预分配的平行数组中，逐帧推进与绘制均不分配对象
+ */
+public class ParticleSystem {
+
+    /**
+     * 速度每秒衰减的比例
+     */
+    private static final float DRAG = 0.08f;
+
+    /**
+     * 重力加速度，单位为爆炸区域边长/秒²
+     */
+    private static final float GRAVITY = 1.5f;
+
+    private final Random mRandom = new Random();
+
+    private final Paint mPaint = new Paint();
+
+    private float[] mX;
+    private float[] mY;
+    private float[] mVelocityX;
+    private float[] mVelocityY;
+
+    /**
+     * 粒子初始半径，同一次发射的粒子相同，由爆炸区域决定
+     */
+    private float[] mRadius;
+
+    /**
+     * 粒子的重力加速度，同一次发射的粒子相同，由爆炸区域决定
+     */
+    private float[] mGravity;
+
+    /**
+     * {@link Canvas#drawPoints(float[], int, int, Paint)}使用的坐标缓冲
+     */
+    private float[] mPoints;
+
+    private int mCount;
+
+    public ParticleSystem(int capacity) {
+        ensureCapacity(capacity);
+        mPaint.setAntiAlias(true);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    /**
+     * 保证可容纳的粒子数量，容量不足时才重新分配
+     *
+     * @param capacity 粒子数量
+     */
+    public void ensureCapacity(int capacity) {
+        if (mX != null && mX.length >= capacity) {
+            return;
+        }
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mVelocityX = new float[capacity];
+        mVelocityY = new float[capacity];
+        mRadius = new float[capacity];
+        mGravity = new float[capacity];
+        mPoints = new float[capacity * 2];
+        mCount = 0;
+    }
+
+    public int getCapacity() {
+        return mX.length;
+    }
+
+    public void setColor(@ColorInt int color) {
+        mPaint.setColor(color);
+    }
+
+    public void reset() {
+        mCount = 0;
+    }
+
+    /**
+     * 在区域中心发射一组粒子，粒子的大小与重力按该区域计算，不影响之前发射的粒子
+     *
+     * @param rect  爆炸区域
+     * @param count 粒子数量，超出容量的部分会被忽略
+     */
+    public void emit(@NonNull Rect rect, int count) {
+        float size = Math.min(rect.width(), rect.height());
+        float centerX = rect.exactCenterX();
+        float centerY = rect.exactCenterY();
+        float radius = Math.max(1.0f, size / 12.0f);
+        float gravity = size * GRAVITY;
+        int end = Math.min(mX.length, mCount + count);
+        for (int i = mCount; i < end; i++) {
+            double angle = mRandom.nextDouble() * Math.PI * 2;
+            float speed = size * (1.0f + mRandom.nextFloat() * 1.5f);
+            mX[i] = centerX;
+            mY[i] = centerY;
+            mVelocityX[i] = (float) Math.cos(angle) * speed;
+            mVelocityY[i] = (float) Math.sin(angle) * speed;
+            mRadius[i] = radius;
+            mGravity[i] = gravity;
+        }
+        mCount = end;
+    }
+
+    /**
+     * 推进粒子状态
+     *
+     * @param seconds 距上一次推进的时间，单位秒
+     */
+    public void step(float seconds) {
+        if (seconds <= 0) {
+            return;
+        }
+        float drag = (float) Math.pow(DRAG, seconds);
+        for (int i = 0; i < mCount; i++) {
+            mX[i] += mVelocityX[i] * seconds;
+            mY[i] += mVelocityY[i] * seconds;
+            mVelocityX[i] *= drag;
+            mVelocityY[i] = mVelocityY[i] * drag + mGravity[i] * seconds;
+        }
+    }
+
+    /**
+     * 将所有粒子当前所在的区域合并到指定区域
+     *
+     * @param bounds 区域
+     */
+    public void unionBounds(@NonNull Rect bounds) {
+        if (mCount == 0) {
+            return;
+        }
+        float left = mX[0] - mRadius[0];
+        float top = mY[0] - mRadius[0];
+        float right = mX[0] + mRadius[0];
+        float bottom = mY[0] + mRadius[0];
+        for (int i = 1; i < mCount; i++) {
+            left = Math.min(left, mX[i] - mRadius[i]);
+            top = Math.min(top, mY[i] - mRadius[i]);
+            right = Math.max(right, mX[i] + mRadius[i]);
+            bottom = Math.max(bottom, mY[i] + mRadius[i]);
+        }
+        bounds.union((int) Math.floor(left), (int) Math.floor(top),
+                (int) Math.ceil(right), (int) Math.ceil(bottom));
+    }
+
+    /**
+     * 批量绘制所有粒子，粒子随进度缩小并淡出，半径相同的连续粒子（同一次发射）一次绘制
+     *
+     * @param canvas   画布
+     * @param progress 动画进度，0.0~1.0
+     */
+    public void draw(@NonNull Canvas canvas, float progress) {
+        if (mCount == 0 || progress >= 1.0f) {
+            return;
+        }
+        float remain = 1.0f - Math.max(0, progress);
+        for (int i = 0; i < mCount; i++) {
+            mPoints[i * 2] = mX[i];
+            mPoints[i * 2 + 1] = mY[i];
+        }
+        int alpha = mPaint.getAlpha();
+        mPaint.setAlpha((int) (alpha * remain));
+        int start = 0;
+        for (int i = 1; i <= mCount; i++) {
+            if (i < mCount && mRadius[i] == mRadius[start]) {
+                continue;
+            }
+            mPaint.setStrokeWidth(mRadius[start] * 2 * remain);
+            canvas.drawPoints(mPoints, start * 2, (i - start) * 2, mPaint);
+            start = i;
+        }
+        mPaint.setAlpha(alpha);
+    }
+}
@@ -0,0 +1,129 @@
+package com.tablebird.drag.animation;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+
+import com.tablebird.drag.element.TargetElement;
+
+import java.util.ArrayList;
+
+/**
+ * 尾随消失时等待播放的跟随视图占位图，每个占位图只录制跟随视图自身的可见区域，
+ * 跟随视图开始播放消失动画后即被移除
+ * <p>
+ * 占位图、区域与录制用的{@link Picture}在移除后保留，随动画集合复用，销毁时不再分配
+ */
+class PlaceholderLayer {
+
+    private final ArrayList<TargetElement> mElements = new ArrayList<>();
+
+    /**
+     * 占位图对应的消失动画
+     */
+    private final ArrayList<DisappearAnimator> mOwners = new ArrayList<>();
+
+    private final ArrayList<TargetElement> mFreeElements = new ArrayList<>();
+
+    private final ArrayList<Rect> mFreeRects = new ArrayList<>();
+
+    private final ArrayList<Picture> mFreePictures = new ArrayList<>();
+
+    /**
+     * 获取用于录制占位图的{@link Picture}，需通过{@link #add(Rect, Picture, DisappearAnimator)}
+     * 或{@link #recyclePicture(Picture)}归还
+     */
+    @NonNull
+    Picture obtainPicture() {
+        int size = mFreePictures.size();
+        return size > 0 ? mFreePictures.remove(size - 1) : new Picture();
+    }
+
+    void recyclePicture(@NonNull Picture picture) {
+        mFreePictures.add(picture);
+    }
+
+    /**
+     * @param rect    占位图在屏幕上的区域，会被复制
+     * @param picture {@link #obtainPicture()}获取并已录制的占位图
+     * @param owner   占位图对应的消失动画
+     */
+    void add(@NonNull Rect rect, @NonNull Picture picture, @NonNull DisappearAnimator owner) {
+        int rectSize = mFreeRects.size();
+        Rect elementRect = rectSize > 0 ? mFreeRects.remove(rectSize - 1) : new Rect();
+        elementRect.set(rect);
+        int elementSize = mFreeElements.size();
+        TargetElement targetElement;
+        if (elementSize > 0) {
+            targetElement = mFreeElements.remove(elementSize - 1);
+            targetElement.setTarget(picture, elementRect);
+        } else {
+            targetElement = new TargetElement(elementRect, picture);
+        }
+        mElements.add(targetElement);
+        mOwners.add(owner);
+    }
+
+    /**
+     * 移除消失动画对应的占位图
+     *
+     * @param owner 开始播放的消失动画
+     * @return true 有占位图被移除
+     */
+    boolean drop(@NonNull DisappearAnimator owner) {
+        boolean dropped = false;
+        for (int i = mOwners.size() - 1; i >= 0; i--) {
+            if (mOwners.get(i) == owner) {
+                mOwners.remove(i);
+                recycle(mElements.remove(i));
+                dropped = true;
+            }
+        }
+        return dropped;
+    }
+
+    void draw(@NonNull Canvas canvas) {
+        for (int i = 0, size = mElements.size(); i < size; i++) {
+            mElements.get(i).draw(canvas);
+        }
+    }
+
+    /**
+     * 将所有占位图的区域合并到指定区域
+     */
+    void unionBounds(@NonNull Rect bounds) {
+        for (int i = 0, size = mElements.size(); i < size; i++) {
+            Rect rect = mElements.get(i).getRect();
+            if (rect != null) {
+                bounds.union(rect);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return mElements.isEmpty();
+    }
+
+    void clear() {
+        for (TargetElement targetElement : mElements) {
+            recycle(targetElement);
+        }
+        mElements.clear();
+        mOwners.clear();
+    }
+
+    private void recycle(TargetElement targetElement) {
+        Rect rect = targetElement.getRect();
+        Picture picture = targetElement.getPicture();
+        targetElement.clean();
+        if (rect != null) {
+            mFreeRects.add(rect);
+        }
+        if (picture != null) {
+            mFreePictures.add(picture);
+        }
+        mFreeElements.add(targetElement);
+    }
+}
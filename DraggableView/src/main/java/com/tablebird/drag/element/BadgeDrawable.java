@@ -0,0 +1,187 @@
+package com.tablebird.drag.element;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 轻量的计数绘制，数字字形宽度只测量一次，计数文本预先生成，更新计数不需要重新布局
+ */
+public class BadgeDrawable extends Drawable {
+
+    /**
+     * 完整显示的最大计数，超出时显示{@link #OVERFLOW_TEXT}
+     */
+    public static final int MAX_COUNT = 99;
+
+    public static final String OVERFLOW_TEXT = MAX_COUNT + "+";
+
+    private static final String[] COUNT_TEXTS = new String[MAX_COUNT + 1];
+
+    static {
+        for (int i = 0; i <= MAX_COUNT; i++) {
+            COUNT_TEXTS[i] = String.valueOf(i);
+        }
+    }
+
+    private static final String GLYPHS = "0123456789+";
+
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    /**
+     * {@link #GLYPHS}中每个字形的宽度
+     */
+    private final float[] mGlyphWidths = new float[GLYPHS.length()];
+
+    private final Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+
+    private String mText = COUNT_TEXTS[0];
+
+    private float mTextWidth;
+
+    /**
+     * 所有计数文本中最宽的宽度
+     */
+    private float mMaxTextWidth;
+
+    public BadgeDrawable(float textSize, @ColorInt int textColor) {
+        mPaint.setTextAlign(Paint.Align.CENTER);
+        mPaint.setColor(textColor);
+        setTextSize(textSize);
+    }
+
+    /**
+     * 设置文字大小，重新测量字形
+     *
+     * @param textSize 文字大小，单位px
+     */
+    public void setTextSize(float textSize) {
+        mPaint.setTextSize(textSize);
+        mPaint.getTextWidths(GLYPHS, mGlyphWidths);
+        mPaint.getFontMetrics(mFontMetrics);
+        float maxDigitWidth = 0;
+        for (int i = 0; i < 10; i++) {
+            maxDigitWidth = Math.max(maxDigitWidth, mGlyphWidths[i]);
+        }
+        mMaxTextWidth = Math.max(maxDigitWidth * 2, measure(OVERFLOW_TEXT));
+        mTextWidth = measure(mText);
+        invalidateSelf();
+    }
+
+    public float getTextSize() {
+        return mPaint.getTextSize();
+    }
+
+    public void setTextColor(@ColorInt int textColor) {
+        if (mPaint.getColor() != textColor) {
+            mPaint.setColor(textColor);
+            invalidateSelf();
+        }
+    }
+
+    /**
+     * 设置计数，只在文本变化时重绘
+     *
+     * @param count 计数
+     */
+    public void setCount(int count) {
+        String text = getCountText(count);
+        if (text != mText) {
+            mText = text;
+            mTextWidth = measure(text);
+            invalidateSelf();
+        }
+    }
+
+    @NonNull
+    public String getText() {
+        return mText;
+    }
+
+    /**
+     * 获取预先生成的计数文本
+     *
+     * @param count 计数
+     * @return 计数文本
+     */
+    @NonNull
+    public static String getCountText(int count) {
+        if (count > MAX_COUNT) {
+            return OVERFLOW_TEXT;
+        }
+        return COUNT_TEXTS[Math.max(0, count)];
+    }
+
+    /**
+     * 按字形宽度累加文本宽度，不调用{@link Paint#measureText(String)}
+     */
+    private float measure(String text) {
+        float width = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int glyph = GLYPHS.indexOf(text.charAt(i));
+            if (glyph >= 0) {
+                width += mGlyphWidths[glyph];
+            }
+        }
+        return width;
+    }
+
+    /**
+     * @return 当前文本宽度
+     */
+    public float getTextWidth() {
+        return mTextWidth;
+    }
+
+    /**
+     * @return 所有计数文本的最大宽度，按该宽度测量时计数变化不需要重新布局
+     */
+    public int getMaxTextWidth() {
+        return (int) Math.ceil(mMaxTextWidth);
+    }
+
+    public int getTextHeight() {
+        return (int) Math.ceil(mFontMetrics.descent - mFontMetrics.ascent);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return getMaxTextWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return getTextHeight();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        Rect bounds = getBounds();
+        float baseline = bounds.exactCenterY() - (mFontMetrics.ascent + mFontMetrics.descent) / 2;
+        canvas.drawText(mText, bounds.exactCenterX(), baseline, mPaint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -40,6 +40,11 @@ public class BezierElement extends CoverElement {
 
     private Target mTarget;
 
+    /**
+     * 是否用直线代替曲线绘制颈部
+     */
+    private boolean mSimplified;
+
     public BezierElement(Target target) {
         mTarget = target;
         initPaint();
@@ -68,6 +73,19 @@ public class BezierElement extends CoverElement {
         mPaint.setColor(bezierColor);
     }
 
+    public void setAntiAlias(boolean antiAlias) {
+        mPaint.setAntiAlias(antiAlias);
+    }
+
+    /**
+     * 设置是否简化颈部，简化后颈部两侧为直线
+     *
+     * @param simplified true 简化
+     */
+    public void setSimplified(boolean simplified) {
+        mSimplified = simplified;
+    }
+
     @Override
     public void draw(Canvas canvas) {
         if (mTarget == null || mTarget.getRect() == null) {
@@ -84,9 +102,15 @@ public class BezierElement extends CoverElement {
         float centerY = (points[0].y + points[1].y + points[2].y + points[3].y) / 4f;
         Path path1 = new Path();
         path1.moveTo(points[0].x, points[0].y);
-        path1.quadTo(centerX, centerY, points[1].x, points[1].y);
-        path1.lineTo(points[3].x, points[3].y);
-        path1.quadTo(centerX, centerY, points[2].x, points[2].y);
+        if (mSimplified) {
+            path1.lineTo(points[1].x, points[1].y);
+            path1.lineTo(points[3].x, points[3].y);
+            path1.lineTo(points[2].x, points[2].y);
+        } else {
+            path1.quadTo(centerX, centerY, points[1].x, points[1].y);
+            path1.lineTo(points[3].x, points[3].y);
+            path1.quadTo(centerX, centerY, points[2].x, points[2].y);
+        }
         path1.lineTo(points[0].x, points[0].y);
         canvas.drawPath(path1, mPaint);
     }
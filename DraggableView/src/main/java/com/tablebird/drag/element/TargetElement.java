@@ -16,6 +16,11 @@ public class TargetElement extends CoverElement implements BezierElement.Target
     private Rect mRect;
     private Drawable mDrawable;
 
+    /**
+     * 直接绘制快照，避免为每次拖动创建{@link PictureDrawable}
+     */
+    private Picture mPicture;
+
     public TargetElement(Callback callback) {
         setCallback(callback);
     }
@@ -27,20 +32,32 @@ public class TargetElement extends CoverElement implements BezierElement.Target
 
     public TargetElement(Rect rect, Drawable drawable) {
         mRect = rect;
-        mDrawable = drawable;
+        setDrawable(drawable);
     }
 
     public void setPicture(Picture picture) {
-        mDrawable = new PictureDrawable(picture);
+        mPicture = picture;
+        mDrawable = null;
         setupRect();
     }
 
+    public Picture getPicture() {
+        return mPicture;
+    }
+
     public void setDrawable(Drawable drawable) {
         mDrawable = drawable;
+        mPicture = null;
         setupRect();
     }
 
     public Drawable getDrawable() {
+        if (mDrawable == null && mPicture != null) {
+            mDrawable = new PictureDrawable(mPicture);
+            if (mRect != null) {
+                mDrawable.setBounds(mRect);
+            }
+        }
         return mDrawable;
     }
 
@@ -50,7 +67,8 @@ public class TargetElement extends CoverElement implements BezierElement.Target
     }
 
     public void setTarget(Picture picture, Rect rect) {
-        mDrawable = new PictureDrawable(picture);
+        mPicture = picture;
+        mDrawable = null;
         mRect = rect;
         setupRect();
     }
@@ -68,9 +86,14 @@ public class TargetElement extends CoverElement implements BezierElement.Target
     }
 
     private void setupRect() {
-        if (mDrawable != null && mRect != null) {
+        if (mRect == null) {
+            return;
+        }
+        if (mDrawable != null) {
             mDrawable.setBounds(mRect);
             invalidateSelf();
+        } else if (mPicture != null) {
+            invalidateSelf();
         }
     }
 
@@ -78,18 +101,25 @@ public class TargetElement extends CoverElement implements BezierElement.Target
     public void draw(Canvas canvas) {
         if (mDrawable != null) {
             mDrawable.draw(canvas);
+        } else if (mPicture != null && mRect != null) {
+            canvas.save();
+            canvas.clipRect(mRect);
+            canvas.translate(mRect.left, mRect.top);
+            canvas.drawPicture(mPicture);
+            canvas.restore();
         }
     }
 
     @Override
     public void clean() {
         mDrawable = null;
+        mPicture = null;
         mRect = null;
     }
 
     @Override
     public String toString() {
-        return "TargetElement{" + "mRect=" + mRect + ", mDrawable=" + mDrawable + '}';
+        return "TargetElement{" + "mRect=" + mRect + ", mDrawable=" + mDrawable + ", mPicture=" + mPicture + '}';
     }
 
     @Override
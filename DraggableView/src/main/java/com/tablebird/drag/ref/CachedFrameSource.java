@@ -0,0 +1,71 @@
+package com.tablebird.drag.ref;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import androidx.annotation.ArrayRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * 通过{@link FrameSetRegistry}共享解码后的所有帧，适用于较短的帧序列
+ */
+public class CachedFrameSource implements FrameSource {
+
+    private WeakReference<Context> mContext;
+    private int mArrayResId;
+    private int[] mResIds;
+    private FrameSetRegistry.FrameSet mFrameSet;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * @param context    上下文
+     * @param arrayResId 帧数组资源，为0时不与其他视图共享
+     * @param resIds     帧资源
+     */
+    public CachedFrameSource(@NonNull Context context, @ArrayRes int arrayResId,
+                             @NonNull int[] resIds) {
+        mContext = new WeakReference<>(context);
+        mArrayResId = arrayResId;
+        mResIds = resIds;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return mResIds.length;
+    }
+
+    @Override
+    public void prepare(int width, int height) {
+        mFrameSet = FrameSetRegistry.obtain(mArrayResId, mResIds, width, height);
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getAvailableFrame(int index) {
+        return mContext.get() != null && mFrameSet != null ? index : -1;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas, int frame, @NonNull Rect dst) {
+        Context context = mContext.get();
+        if (context == null || mFrameSet == null || frame < 0 || frame >= mResIds.length) {
+            return;
+        }
+        mFrameSet.draw(context, canvas, frame, dst, mPaint);
+    }
+
+    @Override
+    public void release() {
+        mFrameSet = null;
+    }
+}
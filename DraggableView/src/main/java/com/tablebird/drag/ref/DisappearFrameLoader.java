@@ -0,0 +1,229 @@
+package com.tablebird.drag.ref;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.os.Build;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 按消失动画的目标大小解码帧，避免以屏幕密度解码出远大于显示区域的位图
+ */
+public class DisappearFrameLoader {
+
+    private static final String MIME_TYPE_JPEG = "image/jpeg";
+
+    /**
+     * 判断单色帧时忽略的低透明度像素，抗锯齿边缘的颜色误差较大
+     */
+    private static final int MASK_ALPHA_THRESHOLD = 0x40;
+
+    /**
+     * 判断单色帧时每个颜色通道允许的误差
+     */
+    private static final int MASK_COLOR_TOLERANCE = 16;
+
+    private DisappearFrameLoader() {
+    }
+
+    /**
+     * 解码结果
+     */
+    public static class Frame {
+        @NonNull
+        public final Bitmap bitmap;
+
+        /**
+         * 以屏幕密度直接解码时的内存占用
+         */
+        public final long fullByteCount;
+
+        /**
+         * {@link Bitmap.Config#ALPHA_8}帧绘制时使用的颜色，其他帧为0
+         */
+        @ColorInt
+        public final int maskColor;
+
+        Frame(@NonNull Bitmap bitmap, long fullByteCount) {
+            this(bitmap, fullByteCount, 0);
+        }
+
+        Frame(@NonNull Bitmap bitmap, long fullByteCount, @ColorInt int maskColor) {
+            this.bitmap = bitmap;
+            this.fullByteCount = fullByteCount;
+            this.maskColor = maskColor;
+        }
+
+        /**
+         * @return 相比直接解码节省的内存
+         */
+        public long getSavedByteCount() {
+            return Math.max(0, fullByteCount - getByteCount(bitmap));
+        }
+    }
+
+    /**
+     * 解码一帧，先用{@link BitmapFactory.Options#inSampleSize}粗略缩小，
+     * 再用{@link BitmapFactory.Options#inTargetDensity}缩放到目标大小
+     *
+     * @param resources 资源
+     * @param resId     帧资源
+     * @param dstWidth  目标宽度
+     * @param dstHeight 目标高度
+     * @param config    期望的像素格式，为空时按帧内容选择：
+     *                  不透明帧使用{@link Bitmap.Config#RGB_565}，
+     *                  只有一种颜色的帧使用{@link Bitmap.Config#ALPHA_8}并以{@link Frame#maskColor}绘制，
+     *                  其余使用{@link Bitmap.Config#ARGB_8888}
+     * @return 解码结果，资源不是位图时为空
+     */
+    @Nullable
+    public static Frame decode(@NonNull Resources resources, @DrawableRes int resId,
+                               int dstWidth, int dstHeight, @Nullable Bitmap.Config config) {
+        return decode(resources, resId, dstWidth, dstHeight, config, null, false);
+    }
+
+    /**
+     * 解码一帧为可变位图，并尽量复用已有位图的内存
+     *
+     * @param reuse 可复用的位图，{@link Build.VERSION_CODES#KITKAT}以下不复用，
+     *              为了复用，config为空时只有JPEG帧使用{@link Bitmap.Config#RGB_565}
+     * @see #decode(Resources, int, int, int, Bitmap.Config)
+     */
+    @Nullable
+    public static Frame decode(@NonNull Resources resources, @DrawableRes int resId,
+                               int dstWidth, int dstHeight, @Nullable Bitmap.Config config,
+                               @Nullable Bitmap reuse) {
+        return decode(resources, resId, dstWidth, dstHeight, config, reuse, true);
+    }
+
+    @Nullable
+    private static Frame decode(@NonNull Resources resources, @DrawableRes int resId,
+                                int dstWidth, int dstHeight, @Nullable Bitmap.Config config,
+                                @Nullable Bitmap reuse, boolean mutable) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(resources, resId, options);
+        int rawWidth = options.outWidth;
+        int rawHeight = options.outHeight;
+        if (rawWidth <= 0 || rawHeight <= 0) {
+            return null;
+        }
+        int targetDensity = resources.getDisplayMetrics().densityDpi;
+        float fullScale = options.inDensity > 0 ? (float) targetDensity / options.inDensity : 1.0f;
+        long fullByteCount = (long) (rawWidth * fullScale + 0.5f) * (long) (rawHeight * fullScale + 0.5f) * 4;
+
+        int sampleSize = 1;
+        if (dstWidth > 0 && dstHeight > 0) {
+            while (rawWidth / (sampleSize * 2) >= dstWidth && rawHeight / (sampleSize * 2) >= dstHeight) {
+                sampleSize *= 2;
+            }
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        int sampledWidth = rawWidth / sampleSize;
+        int sampledHeight = rawHeight / sampleSize;
+        if (dstWidth > 0 && dstHeight > 0 && (sampledWidth > dstWidth || sampledHeight > dstHeight)) {
+            //按较小的比例等比缩小到目标区域内
+            boolean fitWidth = (long) dstWidth * sampledHeight <= (long) dstHeight * sampledWidth;
+            options.inScaled = true;
+            options.inDensity = fitWidth ? sampledWidth : sampledHeight;
+            options.inTargetDensity = fitWidth ? dstWidth : dstHeight;
+        } else {
+            options.inScaled = false;
+        }
+        if (config != null) {
+            options.inPreferredConfig = config;
+        } else if (MIME_TYPE_JPEG.equals(options.outMimeType)) {
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+        }
+        Bitmap bitmap = null;
+        if (reuse != null && reuse.isMutable() && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            options.inMutable = true;
+            options.inBitmap = reuse;
+            try {
+                bitmap = BitmapFactory.decodeResource(resources, resId, options);
+            } catch (IllegalArgumentException e) {
+                //无法复用时重新分配
+                options.inBitmap = null;
+            }
+        }
+        if (bitmap == null) {
+            options.inMutable = mutable;
+            bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        }
+        if (bitmap == null) {
+            return null;
+        }
+        if (config == null && !mutable) {
+            return compact(bitmap, fullByteCount);
+        }
+        return new Frame(bitmap, fullByteCount);
+    }
+
+    /**
+     * 按帧内容转换为更省内存的像素格式
+     */
+    @NonNull
+    private static Frame compact(@NonNull Bitmap bitmap, long fullByteCount) {
+        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            return new Frame(bitmap, fullByteCount);
+        }
+        Bitmap compacted = null;
+        int maskColor = 0;
+        if (!bitmap.hasAlpha()) {
+            compacted = bitmap.copy(Bitmap.Config.RGB_565, false);
+        } else {
+            maskColor = getMaskColor(bitmap);
+            if (maskColor != 0) {
+                compacted = bitmap.extractAlpha();
+            }
+        }
+        if (compacted == null) {
+            return new Frame(bitmap, fullByteCount);
+        }
+        bitmap.recycle();
+        return new Frame(compacted, fullByteCount, maskColor);
+    }
+
+    /**
+     * @return 帧中所有可见像素的颜色相同时返回该颜色（不透明），否则为0
+     */
+    @ColorInt
+    private static int getMaskColor(@NonNull Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] row = new int[width];
+        int maskColor = 0;
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                if (Color.alpha(pixel) < MASK_ALPHA_THRESHOLD) {
+                    continue;
+                }
+                if (maskColor == 0) {
+                    maskColor = pixel | 0xFF000000;
+                } else if (!isSimilar(Color.red(pixel), Color.red(maskColor))
+                        || !isSimilar(Color.green(pixel), Color.green(maskColor))
+                        || !isSimilar(Color.blue(pixel), Color.blue(maskColor))) {
+                    return 0;
+                }
+            }
+        }
+        return maskColor;
+    }
+
+    private static boolean isSimilar(int channel1, int channel2) {
+        return Math.abs(channel1 - channel2) <= MASK_COLOR_TOLERANCE;
+    }
+
+    static long getByteCount(Bitmap bitmap) {
+        return (long) bitmap.getRowBytes() * bitmap.getHeight();
+    }
+}
@@ -4,50 +4,50 @@ package com.tablebird.drag.ref;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.tablebird.drag.DraggableView;
+import com.tablebird.drag.DraggableHelper;
 
 /**
  * @author tablebird
  * @date 2019/7/14
  */
-public class DraggableViewWeakReference extends HashWeakReference<DraggableView> implements Comparable<DraggableViewWeakReference> {
+public class DraggableViewWeakReference extends HashWeakReference<DraggableHelper> implements Comparable<DraggableViewWeakReference> {
 
     public static final DraggableViewWeakReference NULL = new DraggableViewWeakReference(null);
 
-    public DraggableViewWeakReference(DraggableView referent) {
+    public DraggableViewWeakReference(DraggableHelper referent) {
         super(referent);
     }
 
     @Override
     public boolean equals(@Nullable Object obj) {
-        DraggableView draggableView = get();
-        if (draggableView == null) {
+        DraggableHelper draggableHelper = get();
+        if (draggableHelper == null) {
             if (obj instanceof DraggableViewWeakReference && ((DraggableViewWeakReference) obj).get() == null) {
                 return true;
             }
             return false;
         }
-        DraggableView d = null;
-        if (obj instanceof DraggableView) {
-            d = (DraggableView) obj;
+        DraggableHelper d = null;
+        if (obj instanceof DraggableHelper) {
+            d = (DraggableHelper) obj;
         } else if (obj instanceof DraggableViewWeakReference) {
             d = ((DraggableViewWeakReference) obj).get();
         }
-        return draggableView.equals(d);
+        return draggableHelper.equals(d);
     }
 
     @Override
     public int compareTo(@NonNull DraggableViewWeakReference draggableViewWeakReference) {
-        DraggableView draggableView1 = get();
-        DraggableView draggableView2 = draggableViewWeakReference.get();
-        if (draggableView1 == null && draggableView2 == null) {
+        DraggableHelper draggableHelper1 = get();
+        DraggableHelper draggableHelper2 = draggableViewWeakReference.get();
+        if (draggableHelper1 == null && draggableHelper2 == null) {
             return 0;
-        } else if (draggableView1 == null) {
+        } else if (draggableHelper1 == null) {
             return -1;
-        } else if (draggableView2 == null) {
+        } else if (draggableHelper2 == null) {
             return 1;
         } else {
-            return draggableView1.compareTo(draggableView2);
+            return draggableHelper1.compareTo(draggableHelper2);
         }
     }
 }
@@ -0,0 +1,203 @@
+package com.tablebird.drag.ref;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.ArrayRes;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * 按动画帧数组资源与目标大小共享解码后的帧，使用相同数组的视图只解码一次
+ */
+public class FrameSetRegistry {
+
+    private static final String TAG = "FrameSetRegistry";
+
+    private static LongSparseArray<WeakReference<FrameSet>> mFrameSets;
+
+    /**
+     * 按颜色缓存的着色滤镜
+     */
+    private static SparseArray<ColorFilter> mTintFilters;
+
+    private FrameSetRegistry() {
+    }
+
+    /**
+     * 获取共享的帧集合
+     *
+     * @param arrayResId 帧数组资源，为0时帧集合不共享
+     * @param resIds     帧资源
+     * @param width      目标宽度
+     * @param height     目标高度
+     * @return 帧集合
+     */
+    @NonNull
+    public static FrameSet obtain(@ArrayRes int arrayResId, @NonNull int[] resIds, int width,
+                                  int height) {
+        if (arrayResId == 0) {
+            return new FrameSet(resIds, width, height);
+        }
+        if (mFrameSets == null) {
+            mFrameSets = new LongSparseArray<WeakReference<FrameSet>>();
+        }
+        long key = getKey(arrayResId, width, height);
+        WeakReference<FrameSet> frameSetWeakReference = mFrameSets.get(key);
+        FrameSet frameSet = frameSetWeakReference != null ? frameSetWeakReference.get() : null;
+        if (frameSet == null) {
+            frameSet = new FrameSet(resIds, width, height);
+            mFrameSets.put(key, new WeakReference<FrameSet>(frameSet));
+        }
+        return frameSet;
+    }
+
+    /**
+     * 获取着色滤镜，相同颜色共享同一个滤镜
+     *
+     * @param color 着色颜色，透明时不着色
+     * @return 着色滤镜，不着色时为空
+     */
+    @Nullable
+    public static ColorFilter getTintFilter(@ColorInt int color) {
+        if (color == 0) {
+            return null;
+        }
+        if (mTintFilters == null) {
+            mTintFilters = new SparseArray<ColorFilter>();
+        }
+        ColorFilter colorFilter = mTintFilters.get(color);
+        if (colorFilter == null) {
+            colorFilter = new PorterDuffColorFilter(color, PorterDuff.Mode.SRC_ATOP);
+            mTintFilters.put(color, colorFilter);
+        }
+        return colorFilter;
+    }
+
+    /**
+     * 获取所有存活的帧集合相比以屏幕密度直接解码节省的内存，只统计已解码的帧
+     *
+     * @return 节省的字节数
+     */
+    public static long getSavedByteCount() {
+        if (mFrameSets == null) {
+            return 0;
+        }
+        long savedByteCount = 0;
+        for (int i = 0, size = mFrameSets.size(); i < size; i++) {
+            FrameSet frameSet = mFrameSets.valueAt(i).get();
+            if (frameSet != null) {
+                savedByteCount += frameSet.getSavedByteCount();
+            }
+        }
+        return savedByteCount;
+    }
+
+    private static long getKey(int arrayResId, int width, int height) {
+        return ((long) arrayResId << 32) | ((long) (width & 0xFFFF) << 16) | (height & 0xFFFF);
+    }
+
+    public static void clean() {
+        if (mFrameSets != null) {
+            mFrameSets.clear();
+        }
+        if (mTintFilters != null) {
+            mTintFilters.clear();
+        }
+    }
+
+    /**
+     * 按目标大小解码的一组帧，帧在第一次绘制时解码，帧本身不保存着色状态
+     */
+    public static class FrameSet {
+
+        private final int[] mResIds;
+
+        private final Drawable[] mFrames;
+
+        private final int mWidth;
+
+        private final int mHeight;
+
+        private int mDecodedCount;
+
+        FrameSet(@NonNull int[] resIds, int width, int height) {
+            mResIds = resIds;
+            mFrames = new Drawable[resIds.length];
+            mWidth = width;
+            mHeight = height;
+        }
+
+        public int getFrameCount() {
+            return mFrames.length;
+        }
+
+        /**
+         * @return 相比以屏幕密度直接解码节省的内存，只统计已解码的帧
+         */
+        public long getSavedByteCount() {
+            return WeakDrawableCache.getSavedByteCount(mResIds, mWidth, mHeight);
+        }
+
+        /**
+         * 绘制帧
+         *
+         * @param context 上下文
+         * @param canvas  画布
+         * @param index   帧序号
+         * @param dst     绘制区域
+         * @param paint   绘制位图帧的画笔，携带着色滤镜
+         */
+        public void draw(@NonNull Context context, @NonNull Canvas canvas, int index,
+                         @NonNull Rect dst, @NonNull Paint paint) {
+            Drawable drawable = mFrames[index];
+            if (drawable == null) {
+                drawable = WeakDrawableCache.getDrawable(context, mResIds[index], mWidth, mHeight);
+                mFrames[index] = drawable;
+                if (++mDecodedCount == mFrames.length && Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, "Frame set " + mWidth + "x" + mHeight + " saved "
+                            + getSavedByteCount() + " bytes");
+                }
+            }
+            if (drawable instanceof BitmapDrawable) {
+                BitmapDrawable bitmapDrawable = (BitmapDrawable) drawable;
+                Bitmap bitmap = bitmapDrawable.getBitmap();
+                if (bitmap.getConfig() == Bitmap.Config.ALPHA_8) {
+                    //遮罩帧以帧颜色绘制，着色滤镜仍然生效
+                    int color = paint.getColor();
+                    paint.setColor((bitmapDrawable.getPaint().getColor() & 0x00FFFFFF)
+                            | (paint.getAlpha() << 24));
+                    canvas.drawBitmap(bitmap, null, dst, paint);
+                    paint.setColor(color);
+                } else {
+                    canvas.drawBitmap(bitmap, null, dst, paint);
+                }
+                return;
+            }
+            //非位图帧是共享的，绘制后恢复滤镜
+            ColorFilter colorFilter = paint.getColorFilter();
+            if (colorFilter != null) {
+                drawable.setColorFilter(colorFilter);
+            }
+            drawable.setBounds(dst);
+            drawable.draw(canvas);
+            if (colorFilter != null) {
+                drawable.setColorFilter(null);
+            }
+        }
+    }
+}
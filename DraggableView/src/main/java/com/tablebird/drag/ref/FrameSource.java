@@ -0,0 +1,56 @@
+package com.tablebird.drag.ref;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 消失动画的帧来源
+ */
+public interface FrameSource {
+
+    /**
+     * @return 帧数
+     */
+    int getFrameCount();
+
+    /**
+     * 开始播放前调用，帧按该大小解码
+     *
+     * @param width  目标宽度
+     * @param height 目标高度
+     */
+    void prepare(int width, int height);
+
+    /**
+     * 设置绘制帧时使用的滤镜，用于着色
+     *
+     * @param colorFilter 滤镜，为空时按原色绘制
+     */
+    void setColorFilter(@Nullable ColorFilter colorFilter);
+
+    /**
+     * 获取可以立即绘制的帧，不会阻塞
+     *
+     * @param index 期望的帧序号
+     * @return 不超过期望序号的最新可用帧，没有可用帧时为-1
+     */
+    int getAvailableFrame(int index);
+
+    /**
+     * 绘制帧
+     *
+     * @param canvas 画布
+     * @param frame  {@link #getAvailableFrame(int)}返回的帧序号
+     * @param dst    绘制区域
+     */
+    void draw(@NonNull Canvas canvas, int frame, @NonNull Rect dst);
+
+    /**
+     * 释放解码的帧
+     */
+    void release();
+}
@@ -0,0 +1,288 @@
+package com.tablebird.drag.ref;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 在后台线程边播放边解码的帧来源，只保留固定数量的位图并循环复用，
+ * 内存占用与帧数无关，适用于较长的帧序列
+ * <p>
+ * 播放线程只读取已解码完成的帧，来不及解码的帧会被跳过而不会阻塞播放
+ * <p>
+ * 不再显示的位图在之后绘制过{@link #RETIRE_FRAMES}帧后才会被复用，
+ * 硬件加速绘制时RenderThread可能仍在使用之前录制的位图，此时位图不会被主动回收
+ */
+public class StreamingFrameSource implements FrameSource {
+
+    /**
+     * 位图环的大小，一帧显示、一帧等待RenderThread释放、其余帧预解码
+     */
+    private static final int SLOT_COUNT = 4;
+
+    /**
+     * 不再显示的位图在之后绘制多少帧后才可以复用，
+     * 保证引用它的显示列表已被替换且RenderThread已完成绘制
+     */
+    private static final int RETIRE_FRAMES = 2;
+
+    private static final int STATE_EMPTY = 0;
+    private static final int STATE_DECODING = 1;
+    private static final int STATE_READY = 2;
+    private static final int STATE_RETIRED = 3;
+
+    private static HandlerThread sDecodeThread;
+
+    private static Handler sDecodeHandler;
+
+    private final Resources mResources;
+
+    private final int[] mResIds;
+
+    private final Bitmap[] mBitmaps = new Bitmap[SLOT_COUNT];
+
+    private final int[] mSlotFrames = new int[SLOT_COUNT];
+
+    private final AtomicIntegerArray mStates = new AtomicIntegerArray(SLOT_COUNT);
+
+    /**
+     * 位图不再显示时的绘制帧数，只在播放线程中访问
+     */
+    private final int[] mRetiredFrames = new int[SLOT_COUNT];
+
+    /**
+     * 已绘制的不同帧数，只在播放线程中访问
+     */
+    private int mDrawnFrameCount;
+
+    /**
+     * 最后一次绘制的帧
+     */
+    private int mLastDrawnFrame = -1;
+
+    /**
+     * 是否在硬件加速的画布上绘制过，此时位图只丢弃引用而不主动回收
+     */
+    private volatile boolean mHardwareDrawn;
+
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private final Runnable mDecodeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            decodeAhead();
+        }
+    };
+
+    private final Runnable mRecycleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            recycle();
+        }
+    };
+
+    private volatile int mWidth;
+
+    private volatile int mHeight;
+
+    /**
+     * 播放线程最近请求的帧，解码线程不再解码早于该帧的帧
+     */
+    private volatile int mRequestedFrame;
+
+    /**
+     * 下一个待解码的帧，只在解码线程中访问
+     */
+    private int mNextDecodeFrame;
+
+    /**
+     * 播放开始后为true，释放后解码线程不再解码
+     */
+    private volatile boolean mActive;
+
+    public StreamingFrameSource(@NonNull Resources resources, @NonNull int[] resIds) {
+        mResources = resources;
+        mResIds = resIds;
+    }
+
+    private static synchronized Handler getDecodeHandler() {
+        if (sDecodeHandler == null) {
+            sDecodeThread = new HandlerThread("DisappearFrameDecoder",
+                    Process.THREAD_PRIORITY_DISPLAY);
+            sDecodeThread.start();
+            sDecodeHandler = new Handler(sDecodeThread.getLooper());
+        }
+        return sDecodeHandler;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return mResIds.length;
+    }
+
+    @Override
+    public void prepare(int width, int height) {
+        Handler handler = getDecodeHandler();
+        handler.removeCallbacks(mRecycleRunnable);
+        mWidth = width;
+        mHeight = height;
+        mRequestedFrame = 0;
+        mLastDrawnFrame = -1;
+        mActive = true;
+        //上一次播放中仍可能被引用的位图保持等待状态，由getAvailableFrame释放
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            if (mStates.get(i) == STATE_READY) {
+                retire(i);
+            }
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < SLOT_COUNT; i++) {
+                    mStates.compareAndSet(i, STATE_READY, STATE_EMPTY);
+                }
+                mNextDecodeFrame = 0;
+                decodeAhead();
+            }
+        });
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getAvailableFrame(int index) {
+        if (index > mRequestedFrame) {
+            mRequestedFrame = index;
+        }
+        int available = -1;
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            if (mStates.get(i) == STATE_READY && mSlotFrames[i] <= index
+                    && mSlotFrames[i] > available) {
+                available = mSlotFrames[i];
+            }
+        }
+        if (available < 0) {
+            return -1;
+        }
+        //早于当前帧的位图不会再显示，等待RenderThread不再引用后交给解码线程复用
+        boolean released = false;
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            int state = mStates.get(i);
+            if (state == STATE_READY && mSlotFrames[i] < available) {
+                retire(i);
+            } else if (state == STATE_RETIRED
+                    && mDrawnFrameCount - mRetiredFrames[i] >= RETIRE_FRAMES) {
+                mStates.set(i, STATE_EMPTY);
+                released = true;
+            }
+        }
+        if (released && mActive) {
+            getDecodeHandler().post(mDecodeRunnable);
+        }
+        return available;
+    }
+
+    private void retire(int slot) {
+        mRetiredFrames[slot] = mDrawnFrameCount;
+        mStates.set(slot, STATE_RETIRED);
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas, int frame, @NonNull Rect dst) {
+        if (frame != mLastDrawnFrame) {
+            mLastDrawnFrame = frame;
+            mDrawnFrameCount++;
+        }
+        if (canvas.isHardwareAccelerated()) {
+            mHardwareDrawn = true;
+        }
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            if (mStates.get(i) == STATE_READY && mSlotFrames[i] == frame) {
+                canvas.drawBitmap(mBitmaps[i], null, dst, mPaint);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        mActive = false;
+        Handler handler = getDecodeHandler();
+        handler.removeCallbacks(mDecodeRunnable);
+        handler.post(mRecycleRunnable);
+    }
+
+    /**
+     * 在解码线程中填满空闲的位图，跳过已经来不及显示的帧
+     */
+    private void decodeAhead() {
+        while (mActive) {
+            int frame = Math.max(mNextDecodeFrame, mRequestedFrame);
+            if (frame >= mResIds.length) {
+                return;
+            }
+            int slot = -1;
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                if (mStates.compareAndSet(i, STATE_EMPTY, STATE_DECODING)) {
+                    slot = i;
+                    break;
+                }
+            }
+            if (slot < 0) {
+                return;
+            }
+            DisappearFrameLoader.Frame decoded = DisappearFrameLoader.decode(mResources,
+                    mResIds[frame], mWidth, mHeight, null, mBitmaps[slot]);
+            mNextDecodeFrame = frame + 1;
+            if (decoded == null) {
+                mStates.set(slot, STATE_EMPTY);
+                continue;
+            }
+            if (mBitmaps[slot] != null && mBitmaps[slot] != decoded.bitmap) {
+                discard(mBitmaps[slot]);
+            }
+            mBitmaps[slot] = decoded.bitmap;
+            mSlotFrames[slot] = frame;
+            mStates.set(slot, STATE_READY);
+        }
+    }
+
+    /**
+     * 在解码线程中回收位图，保证不会与正在进行的解码冲突
+     */
+    private void recycle() {
+        if (mActive) {
+            return;
+        }
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            mStates.set(i, STATE_EMPTY);
+            if (mBitmaps[i] != null) {
+                discard(mBitmaps[i]);
+                mBitmaps[i] = null;
+            }
+        }
+    }
+
+    /**
+     * 只在软件绘制时主动回收，硬件加速时显示列表可能仍持有位图，交给垃圾回收释放
+     */
+    private void discard(Bitmap bitmap) {
+        if (!mHardwareDrawn) {
+            bitmap.recycle();
+        }
+    }
+}
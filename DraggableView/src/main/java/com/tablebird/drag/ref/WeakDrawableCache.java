@@ -1,11 +1,13 @@
 package com.tablebird.drag.ref;
 
 import android.content.Context;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.util.SparseArray;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
+import androidx.collection.LongSparseArray;
 
 import java.lang.ref.WeakReference;
 
@@ -19,6 +21,16 @@ public class WeakDrawableCache {
 
     private static SparseArray<WeakReference<Drawable>> mWeakReferences;
 
+    /**
+     * 按目标大小解码的帧，键由资源ID与大小组成
+     */
+    private static LongSparseArray<WeakReference<Drawable>> mSizedWeakReferences;
+
+    /**
+     * 每帧按目标大小解码后节省的内存
+     */
+    private static LongSparseArray<Long> mSavedByteCounts;
+
     @NonNull
     public static Drawable getDrawable(@NonNull Context context, @DrawableRes int resId) {
         if (mWeakReferences == null) {
@@ -34,9 +46,82 @@ public class WeakDrawableCache {
         }
     }
 
+    /**
+     * 获取按目标大小解码的帧，非位图资源按原方式加载
+     *
+     * @param context 上下文
+     * @param resId   帧资源
+     * @param width   目标宽度
+     * @param height  目标高度
+     * @return 帧
+     */
+    @NonNull
+    public static Drawable getDrawable(@NonNull Context context, @DrawableRes int resId, int width,
+                                       int height) {
+        if (width <= 0 || height <= 0) {
+            return getDrawable(context, resId);
+        }
+        if (mSizedWeakReferences == null) {
+            mSizedWeakReferences = new LongSparseArray<WeakReference<Drawable>>();
+            mSavedByteCounts = new LongSparseArray<Long>();
+        }
+        long key = getKey(resId, width, height);
+        WeakReference<Drawable> drawableWeakReference = mSizedWeakReferences.get(key);
+        Drawable drawable = drawableWeakReference != null ? drawableWeakReference.get() : null;
+        if (drawable != null) {
+            return drawable;
+        }
+        DisappearFrameLoader.Frame frame = DisappearFrameLoader.decode(context.getResources(),
+                resId, width, height, null);
+        if (frame == null) {
+            return getDrawable(context, resId);
+        }
+        BitmapDrawable bitmapDrawable = new BitmapDrawable(context.getResources(), frame.bitmap);
+        if (frame.maskColor != 0) {
+            //ALPHA_8帧以画笔颜色绘制
+            bitmapDrawable.getPaint().setColor(frame.maskColor);
+        }
+        drawable = bitmapDrawable;
+        mSizedWeakReferences.put(key, new WeakReference<Drawable>(drawable));
+        mSavedByteCounts.put(key, frame.getSavedByteCount());
+        return drawable;
+    }
+
+    /**
+     * 获取一组帧按目标大小解码后节省的内存，只统计已解码过的帧
+     *
+     * @param resIds 帧资源
+     * @param width  目标宽度
+     * @param height 目标高度
+     * @return 节省的字节数
+     */
+    public static long getSavedByteCount(@NonNull int[] resIds, int width, int height) {
+        if (mSavedByteCounts == null) {
+            return 0;
+        }
+        long savedByteCount = 0;
+        for (int resId : resIds) {
+            Long saved = mSavedByteCounts.get(getKey(resId, width, height));
+            if (saved != null) {
+                savedByteCount += saved;
+            }
+        }
+        return savedByteCount;
+    }
+
+    private static long getKey(int resId, int width, int height) {
+        return ((long) resId << 32) | ((long) (width & 0xFFFF) << 16) | (height & 0xFFFF);
+    }
+
     public static void clean() {
         if (mWeakReferences != null) {
             mWeakReferences.clear();
         }
+        if (mSizedWeakReferences != null) {
+            mSizedWeakReferences.clear();
+        }
+        if (mSavedByteCounts != null) {
+            mSavedByteCounts.clear();
+        }
     }
 }
@@ -0,0 +1,226 @@
+package com.tablebird.drag.ref;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 视图标记的前缀树，按前缀（如"chat:"）查找一组视图，无需遍历所有标记
+ * <p>
+ * 只持有视图的弱引用，已回收的视图在查询时顺便清理，非线程安全
+ *
+ * @param <T> 视图类型
+ */
+public class WeakMarkTrie<T> {
+
+    private final Node<T> mRoot = new Node<>();
+
+    /**
+     * 复用的查找路径，path[i]为标记前i个字符对应的节点
+     */
+    private Node[] mPath = new Node[16];
+
+    /**
+     * 添加标记，同一标记会覆盖原有视图
+     *
+     * @param mark  视图标记
+     * @param value 视图
+     */
+    public void put(@NonNull String mark, @NonNull T value) {
+        Node[] path = obtainPath(mark.length());
+        Node<T> node = mRoot;
+        path[0] = node;
+        for (int i = 0; i < mark.length(); i++) {
+            char c = mark.charAt(i);
+            Node<T> child = node.getChild(c);
+            if (child == null) {
+                child = new Node<>();
+                node.putChild(c, child);
+            }
+            node = child;
+            path[i + 1] = node;
+        }
+        boolean isNew = node.mValue == null;
+        node.mValue = new WeakReference<>(value);
+        if (isNew) {
+            for (int i = 0; i <= mark.length(); i++) {
+                path[i].mSize++;
+            }
+        }
+        Arrays.fill(path, 0, mark.length() + 1, null);
+    }
+
+    /**
+     * 移除标记
+     *
+     * @param mark 视图标记
+     */
+    public void remove(@NonNull String mark) {
+        Node[] path = obtainPath(mark.length());
+        Node<T> node = find(mark, path);
+        if (node != null && node.mValue != null) {
+            node.mValue = null;
+            for (int i = 0; i <= mark.length(); i++) {
+                path[i].mSize--;
+            }
+            prune(mark, path);
+        }
+        Arrays.fill(path, 0, mark.length() + 1, null);
+    }
+
+    /**
+     * 获取前缀下所有存活的视图，已回收的视图会被顺便清理
+     *
+     * @param prefix 标记前缀
+     * @param out    结果
+     */
+    public void collect(@NonNull String prefix, @NonNull List<T> out) {
+        Node[] path = obtainPath(prefix.length());
+        Node<T> node = find(prefix, path);
+        if (node != null) {
+            int cleared = collect(node, out);
+            if (cleared > 0) {
+                //前缀节点自身已在递归中更新，这里只更新它的祖先
+                for (int i = 0; i < prefix.length(); i++) {
+                    path[i].mSize -= cleared;
+                }
+                prune(prefix, path);
+            }
+        }
+        Arrays.fill(path, 0, prefix.length() + 1, null);
+    }
+
+    /**
+     * @return 标记数量，包括尚未清理的已回收视图
+     */
+    public int size() {
+        return mRoot.mSize;
+    }
+
+    /**
+     * 沿标记查找节点，并记录经过的路径
+     */
+    @Nullable
+    private Node<T> find(String mark, Node[] path) {
+        Node<T> node = mRoot;
+        path[0] = node;
+        for (int i = 0; i < mark.length(); i++) {
+            node = node.getChild(mark.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            path[i + 1] = node;
+        }
+        return node;
+    }
+
+    /**
+     * 从标记对应的节点向上裁剪空分支
+     */
+    private void prune(String mark, Node[] path) {
+        for (int i = mark.length(); i > 0; i--) {
+            if (path[i].mSize > 0) {
+                break;
+            }
+            path[i - 1].removeChild(mark.charAt(i - 1));
+        }
+    }
+
+    private Node[] obtainPath(int length) {
+        if (mPath.length <= length) {
+            mPath = new Node[Math.max(length + 1, mPath.length * 2)];
+        }
+        return mPath;
+    }
+
+    /**
+     * @return 被清理的已回收视图数量
+     */
+    private int collect(Node<T> node, List<T> out) {
+        int cleared = 0;
+        if (node.mValue != null) {
+            T value = node.mValue.get();
+            if (value == null) {
+                node.mValue = null;
+                cleared++;
+            } else {
+                out.add(value);
+            }
+        }
+        for (int i = node.mChildCount - 1; i >= 0; i--) {
+            Node<T> child = node.childAt(i);
+            cleared += collect(child, out);
+            if (child.mSize <= 0) {
+                node.removeChildAt(i);
+            }
+        }
+        node.mSize -= cleared;
+        return cleared;
+    }
+
+    /**
+     * 子节点按字符排序保存在数组中，二分查找
+     */
+    private static class Node<T> {
+
+        private static final char[] EMPTY_KEYS = new char[0];
+
+        private static final Node[] EMPTY_CHILDREN = new Node[0];
+
+        char[] mKeys = EMPTY_KEYS;
+        Node[] mChildren = EMPTY_CHILDREN;
+        int mChildCount;
+        WeakReference<T> mValue;
+        /**
+         * 子树中的标记数量
+         */
+        int mSize;
+
+        @Nullable
+        Node<T> getChild(char key) {
+            int index = Arrays.binarySearch(mKeys, 0, mChildCount, key);
+            return index >= 0 ? childAt(index) : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<T> childAt(int index) {
+            return (Node<T>) mChildren[index];
+        }
+
+        void putChild(char key, Node<T> child) {
+            int index = Arrays.binarySearch(mKeys, 0, mChildCount, key);
+            if (index >= 0) {
+                mChildren[index] = child;
+                return;
+            }
+            index = ~index;
+            if (mChildCount == mKeys.length) {
+                int capacity = mChildCount == 0 ? 2 : mChildCount * 2;
+                mKeys = Arrays.copyOf(mKeys, capacity);
+                mChildren = Arrays.copyOf(mChildren, capacity);
+            }
+            System.arraycopy(mKeys, index, mKeys, index + 1, mChildCount - index);
+            System.arraycopy(mChildren, index, mChildren, index + 1, mChildCount - index);
+            mKeys[index] = key;
+            mChildren[index] = child;
+            mChildCount++;
+        }
+
+        void removeChild(char key) {
+            int index = Arrays.binarySearch(mKeys, 0, mChildCount, key);
+            if (index >= 0) {
+                removeChildAt(index);
+            }
+        }
+
+        void removeChildAt(int index) {
+            mChildCount--;
+            System.arraycopy(mKeys, index + 1, mKeys, index, mChildCount - index);
+            System.arraycopy(mChildren, index + 1, mChildren, index, mChildCount - index);
+            mChildren[mChildCount] = null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tablebird.drag;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 校验{@link CountTree}按标记累加计数，以及领导关系变化时的增减
+ */
+public class CountTreeTest {
+
+    @Test
+    public void setCount_followersWithoutViewsAddToLeader() {
+        CountTree countTree = new CountTree(null);
+        for (int i = 0; i < 10; i++) {
+            countTree.setLeader("row:" + i, "summary", 1);
+        }
+        assertEquals(10, countTree.getSubordinateCount("summary"));
+
+        countTree.setCount("row:3", 5);
+        assertEquals(14, countTree.getSubordinateCount("summary"));
+        assertEquals(5, countTree.getCount("row:3"));
+    }
+
+    @Test
+    public void setCount_undeclaredMarkIsIgnored() {
+        CountTree countTree = new CountTree(null);
+        assertFalse(countTree.setCount("row:0", 3));
+        assertEquals(0, countTree.size());
+    }
+
+    @Test
+    public void setLeader_movesTotalToNewLeader() {
+        CountTree countTree = new CountTree(null);
+        countTree.setLeader("row:0", "group", 2);
+        countTree.setLeader("group", "summary", 1);
+        assertEquals(3, countTree.getSubordinateCount("summary"));
+
+        countTree.setLeader("row:1", "group", 4);
+        assertEquals(6, countTree.getSubordinateCount("group"));
+        assertEquals(7, countTree.getSubordinateCount("summary"));
+
+        countTree.setLeader("group", "other", 1);
+        assertEquals(0, countTree.getSubordinateCount("summary"));
+        assertEquals(7, countTree.getSubordinateCount("other"));
+    }
+
+    @Test
+    public void setLeader_nullRemovesCountAndPrunes() {
+        CountTree countTree = new CountTree(null);
+        countTree.setLeader("row:0", "summary", 2);
+        countTree.setLeader("row:0", null, 2);
+        assertEquals(0, countTree.getSubordinateCount("summary"));
+        assertEquals(0, countTree.size());
+    }
+
+    @Test
+    public void dispatch_cycleStopsAtMaxDepth() {
+        CountTree countTree = new CountTree(null);
+        countTree.setLeader("a", "b", 0);
+        countTree.setLeader("b", "a", 0);
+        countTree.dispatch("a", 1);
+        assertTrue(countTree.getSubordinateCount("a") <= CountTree.MAX_DEPTH);
+    }
+
+    @Test
+    public void dispatch_notifiesEveryLeaderInChain() {
+        final List<String> changedMarks = new ArrayList<>();
+        CountTree countTree = new CountTree(new CountTree.OnSubordinateCountChangedListener() {
+            @Override
+            public void onSubordinateCountChanged(@NonNull String mark) {
+                changedMarks.add(mark);
+            }
+        });
+        countTree.setLeader("group", "summary", 0);
+        changedMarks.clear();
+        countTree.setLeader("row:0", "group", 3);
+        assertEquals(2, changedMarks.size());
+        assertEquals("group", changedMarks.get(0));
+        assertEquals("summary", changedMarks.get(1));
+    }
+}
@@ -0,0 +1,123 @@
+package com.tablebird.drag;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按合成的触摸轨迹回放{@link MotionPredictor}，校验预测误差与外推距离上限
+ */
+public class MotionPredictorTest {
+
+    /**
+     * 触摸点间隔，单位ms
+     */
+    private static final long SAMPLE_INTERVAL = 8;
+
+    private static final float DELTA = 0.01f;
+
+    @Test
+    public void predict_constantVelocityIsExtrapolated() {
+        MotionPredictor predictor = new MotionPredictor(100);
+        long time = 0;
+        for (int i = 0; i < 10; i++, time += SAMPLE_INTERVAL) {
+            predictor.addSample(100 + 0.5f * time, 200 - 0.25f * time, time);
+        }
+        long newestTime = time - SAMPLE_INTERVAL;
+        predictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME, newestTime);
+
+        long predictedTime = newestTime + MotionPredictor.DEFAULT_PREDICTION_TIME;
+        assertEquals(100 + 0.5f * predictedTime, predictor.getPredictedX(), DELTA);
+        assertEquals(200 - 0.25f * predictedTime, predictor.getPredictedY(), DELTA);
+    }
+
+    @Test
+    public void predict_curvedTraceErrorIsBelowLag() {
+        MotionPredictor predictor = new MotionPredictor(100);
+        long predictionTime = MotionPredictor.DEFAULT_PREDICTION_TIME;
+        float predictionError = 0;
+        float lagError = 0;
+        int count = 0;
+        //半径200px、约一秒一圈的圆周拖动
+        for (long time = 0; time < 1000; time += SAMPLE_INTERVAL) {
+            predictor.addSample(circleX(time), circleY(time), time);
+            if (time < 3 * SAMPLE_INTERVAL) {
+                continue;
+            }
+            predictor.predict(predictionTime, time);
+            float actualX = circleX(time + predictionTime);
+            float actualY = circleY(time + predictionTime);
+            predictionError += Math.hypot(predictor.getPredictedX() - actualX,
+                    predictor.getPredictedY() - actualY);
+            lagError += Math.hypot(circleX(time) - actualX, circleY(time) - actualY);
+            count++;
+        }
+        predictionError /= count;
+        lagError /= count;
+        //不预测时约落后20px，线性拟合在弯道上仍有误差，但应明显小于不预测
+        assertTrue("lag " + lagError, lagError > 19);
+        assertTrue("prediction error " + predictionError + " lag " + lagError,
+                predictionError < lagError * 0.25f);
+    }
+
+    @Test
+    public void predict_distanceIsClamped() {
+        float maxDistance = 20;
+        MotionPredictor predictor = new MotionPredictor(maxDistance);
+        long time = 0;
+        for (int i = 0; i < 6; i++, time += SAMPLE_INTERVAL) {
+            predictor.addSample(10 * time, 5 * time, time);
+        }
+        long newestTime = time - SAMPLE_INTERVAL;
+        predictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME, newestTime);
+
+        float dx = predictor.getPredictedX() - 10 * newestTime;
+        float dy = predictor.getPredictedY() - 5 * newestTime;
+        assertEquals(maxDistance, (float) Math.hypot(dx, dy), DELTA);
+        //只缩短距离，不改变方向
+        assertEquals(2, dx / dy, DELTA);
+    }
+
+    @Test
+    public void predict_staleOrSparseSamplesReturnNewestPoint() {
+        MotionPredictor predictor = new MotionPredictor(100);
+        predictor.addSample(0, 0, 0);
+        predictor.addSample(8, 0, SAMPLE_INTERVAL);
+        predictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME, SAMPLE_INTERVAL);
+        assertEquals(8, predictor.getPredictedX(), DELTA);
+
+        predictor.addSample(16, 0, 2 * SAMPLE_INTERVAL);
+        //手指停住后不再外推
+        predictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME, 2 * SAMPLE_INTERVAL + 100);
+        assertEquals(16, predictor.getPredictedX(), DELTA);
+
+        predictor.reset();
+        predictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME, 0);
+        assertEquals(0, predictor.getPredictedX(), DELTA);
+        assertEquals(0, predictor.getPredictedY(), DELTA);
+    }
+
+    @Test
+    public void addSample_sameTimeKeepsNewestPosition() {
+        MotionPredictor predictor = new MotionPredictor(100);
+        predictor.addSample(0, 0, 0);
+        predictor.addSample(8, 0, SAMPLE_INTERVAL);
+        predictor.addSample(16, 0, 2 * SAMPLE_INTERVAL);
+        predictor.addSample(100, 0, 2 * SAMPLE_INTERVAL);
+        predictor.addSample(24, 0, 2 * SAMPLE_INTERVAL);
+        predictor.predict(MotionPredictor.DEFAULT_PREDICTION_TIME, 2 * SAMPLE_INTERVAL);
+
+        //同一时间的点被替换，剩下的三个点速度为1.5px/ms
+        assertEquals(24 + 1.5f * MotionPredictor.DEFAULT_PREDICTION_TIME,
+                predictor.getPredictedX(), DELTA);
+    }
+
+    private static float circleX(long time) {
+        return 500 + 200 * (float) Math.cos(2 * Math.PI * time / 1000);
+    }
+
+    private static float circleY(long time) {
+        return 500 + 200 * (float) Math.sin(2 * Math.PI * time / 1000);
+    }
+}
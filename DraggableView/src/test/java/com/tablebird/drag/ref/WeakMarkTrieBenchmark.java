@@ -0,0 +1,114 @@
+package com.tablebird.drag.ref;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 对比{@link WeakMarkTrie}与原有按Map遍历所有标记的分组查询，输出每次查询耗时与占用内存
+ * <p>
+ * 耗时与内存随机器变化，仅供参考，需要时手动运行，结果的正确性由{@link WeakMarkTrieTest}校验
+ */
+@Ignore("Benchmark, run manually")
+public class WeakMarkTrieBenchmark {
+
+    private static final int GROUP_COUNT = 100;
+
+    private static final int MARKS_PER_GROUP = 100;
+
+    private static final int QUERY_COUNT = 2000;
+
+    @Test
+    public void groupQuery_trieVersusLinearScan() {
+        List<Object> values = new ArrayList<>();
+        WeakMarkTrie<Object> trie = new WeakMarkTrie<>();
+        Map<String, WeakReference<Object>> map = new HashMap<>();
+        long baseline = usedMemory();
+        for (int group = 0; group < GROUP_COUNT; group++) {
+            for (int i = 0; i < MARKS_PER_GROUP; i++) {
+                String mark = "group" + group + ":" + i;
+                Object value = new Object();
+                values.add(value);
+                map.put(mark, new WeakReference<>(value));
+            }
+        }
+        long mapMemory = usedMemory() - baseline;
+        baseline = usedMemory();
+        for (Map.Entry<String, WeakReference<Object>> entry : map.entrySet()) {
+            trie.put(entry.getKey(), entry.getValue().get());
+        }
+        long trieMemory = usedMemory() - baseline;
+
+        List<Object> out = new ArrayList<>();
+        //预热
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryTrie(trie, i, out);
+            queryLinear(map, i, out);
+        }
+
+        long start = System.nanoTime();
+        int trieFound = 0;
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            trieFound += queryTrie(trie, i, out);
+        }
+        long trieTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int linearFound = 0;
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            linearFound += queryLinear(map, i, out);
+        }
+        long linearTime = System.nanoTime() - start;
+
+        System.out.println(String.format(Locale.US,
+                "%d marks, %d per group: trie %.1f us/query (%d found), "
+                        + "linear scan %.1f us/query (%d found); "
+                        + "map with values ~%d KB, trie on top ~%d KB (values %d)",
+                GROUP_COUNT * MARKS_PER_GROUP, MARKS_PER_GROUP,
+                trieTime / 1000f / QUERY_COUNT, trieFound,
+                linearTime / 1000f / QUERY_COUNT, linearFound,
+                mapMemory / 1024, trieMemory / 1024, values.size()));
+    }
+
+    private static int queryTrie(WeakMarkTrie<Object> trie, int query, List<Object> out) {
+        out.clear();
+        trie.collect(prefix(query), out);
+        return out.size();
+    }
+
+    /**
+     * 原有实现：遍历Context下所有标记，逐个比较前缀
+     */
+    private static int queryLinear(Map<String, WeakReference<Object>> map, int query,
+                                   List<Object> out) {
+        out.clear();
+        String prefix = prefix(query);
+        for (Map.Entry<String, WeakReference<Object>> entry : map.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                Object value = entry.getValue().get();
+                if (value != null) {
+                    out.add(value);
+                }
+            }
+        }
+        return out.size();
+    }
+
+    private static String prefix(int query) {
+        return "group" + (query % GROUP_COUNT) + ":";
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
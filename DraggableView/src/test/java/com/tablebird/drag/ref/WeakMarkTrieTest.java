@@ -0,0 +1,185 @@
+package com.tablebird.drag.ref;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link WeakMarkTrie}的添加、移除、前缀查询与已回收引用的清理
+ */
+public class WeakMarkTrieTest {
+
+    @Test
+    public void collect_returnsOnlyMarksUnderPrefix() {
+        WeakMarkTrie<String> trie = new WeakMarkTrie<>();
+        String chat1 = "chat:1";
+        String chat2 = "chat:2";
+        String feed1 = "feed:1";
+        trie.put(chat1, chat1);
+        trie.put(chat2, chat2);
+        trie.put(feed1, feed1);
+
+        assertEquals(Arrays.asList(chat1, chat2), collect(trie, "chat:"));
+        assertEquals(Collections.singletonList(feed1), collect(trie, "feed"));
+        assertEquals(Arrays.asList(chat1, chat2, feed1), collect(trie, ""));
+        assertTrue(collect(trie, "news:").isEmpty());
+        assertTrue(collect(trie, "chat:10").isEmpty());
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    public void put_sameMarkReplacesValue() {
+        WeakMarkTrie<String> trie = new WeakMarkTrie<>();
+        String first = "first";
+        String second = "second";
+        trie.put("chat:1", first);
+        trie.put("chat:1", second);
+
+        assertEquals(1, trie.size());
+        assertEquals(Collections.singletonList(second), collect(trie, "chat:1"));
+    }
+
+    @Test
+    public void put_markIsPrefixOfAnotherMark() {
+        WeakMarkTrie<String> trie = new WeakMarkTrie<>();
+        String chat = "chat";
+        String chat1 = "chat:1";
+        trie.put(chat, chat);
+        trie.put(chat1, chat1);
+
+        assertEquals(Arrays.asList(chat, chat1), collect(trie, "chat"));
+        trie.remove(chat);
+        assertEquals(Collections.singletonList(chat1), collect(trie, "chat"));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    public void remove_updatesSizeAndIgnoresUnknownMarks() {
+        WeakMarkTrie<String> trie = new WeakMarkTrie<>();
+        String chat1 = "chat:1";
+        String chat2 = "chat:2";
+        trie.put(chat1, chat1);
+        trie.put(chat2, chat2);
+
+        trie.remove("chat:3");
+        trie.remove("chat:");
+        trie.remove("chat:10");
+        assertEquals(2, trie.size());
+
+        trie.remove(chat1);
+        assertEquals(1, trie.size());
+        assertEquals(Collections.singletonList(chat2), collect(trie, "chat:"));
+
+        trie.remove(chat2);
+        assertEquals(0, trie.size());
+        assertTrue(collect(trie, "").isEmpty());
+
+        trie.put(chat1, chat1);
+        assertEquals(Collections.singletonList(chat1), collect(trie, "chat:"));
+    }
+
+    @Test
+    public void remove_longMarkGrowsPathBuffer() {
+        WeakMarkTrie<String> trie = new WeakMarkTrie<>();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        String mark = builder.toString();
+        trie.put(mark, mark);
+        assertEquals(Collections.singletonList(mark), collect(trie, mark.substring(0, 50)));
+        trie.remove(mark);
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void collect_matchesLinearScanOfAllMarks() {
+        WeakMarkTrie<String> trie = new WeakMarkTrie<>();
+        List<String> marks = new ArrayList<>();
+        for (int group = 0; group < 20; group++) {
+            for (int i = 0; i < 20; i++) {
+                String mark = "group" + group + ":" + i;
+                marks.add(mark);
+                trie.put(mark, mark);
+            }
+        }
+        for (String prefix : Arrays.asList("group1", "group1:", "group12:1", "group", "x")) {
+            List<String> expected = new ArrayList<>();
+            for (String mark : marks) {
+                if (mark.startsWith(prefix)) {
+                    expected.add(mark);
+                }
+            }
+            Collections.sort(expected);
+            assertEquals(prefix, expected, collect(trie, prefix));
+        }
+        assertEquals(20, collect(trie, "group7:").size());
+    }
+
+    @Test
+    public void collect_clearsCollectedValuesLazily() {
+        WeakMarkTrie<Object> trie = new WeakMarkTrie<>();
+        Object alive = new Object();
+        trie.put("chat:1", alive);
+        WeakReference<Object> chat2 = putCollectable(trie, "chat:2");
+        WeakReference<Object> feed1 = putCollectable(trie, "feed:1");
+        awaitCleared(chat2);
+        awaitCleared(feed1);
+
+        //清理只在查询时发生
+        assertEquals(3, trie.size());
+        assertEquals(Collections.singletonList(alive), collect(trie, "chat:"));
+        assertEquals(2, trie.size());
+
+        assertTrue(collect(trie, "feed:").isEmpty());
+        assertEquals(1, trie.size());
+
+        //清理后的空分支已被裁剪，重新添加不受影响
+        Object feed = new Object();
+        trie.put("feed:1", feed);
+        assertEquals(Collections.singletonList(feed), collect(trie, "feed:"));
+        assertEquals(2, trie.size());
+    }
+
+    private static WeakReference<Object> putCollectable(WeakMarkTrie<Object> trie, String mark) {
+        Object value = new Object();
+        trie.put(mark, value);
+        return new WeakReference<>(value);
+    }
+
+    /**
+     * 同一对象的所有弱引用在同一次回收中被清除
+     */
+    private static void awaitCleared(WeakReference<?> reference) {
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertTrue("value was not collected", reference.get() == null);
+    }
+
+    private static <T> List<T> collect(WeakMarkTrie<T> trie, String prefix) {
+        List<T> out = new ArrayList<>();
+        trie.collect(prefix, out);
+        Collections.sort(out, new Comparator<T>() {
+            @Override
+            public int compare(T o1, T o2) {
+                return String.valueOf(o1).compareTo(String.valueOf(o2));
+            }
+        });
+        return out;
+    }
+}
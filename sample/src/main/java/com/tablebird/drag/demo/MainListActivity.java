@@ -10,10 +10,13 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.tablebird.drag.DraggableManager;
 import com.tablebird.drag.DraggableView;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MainListActivity extends AppCompatActivity implements DraggableView.OnDragListener , View.OnClickListener {
 
@@ -23,6 +26,8 @@ public class MainListActivity extends AppCompatActivity implements DraggableView
 
     private static final String TIP_SUMMARY_MARK = "TIP_SUMMARY";
 
+    private static final String ROW_MARK_PREFIX = "row:";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -54,15 +59,21 @@ public class MainListActivity extends AppCompatActivity implements DraggableView
     }
 
     private void initTipSummary() {
-        List<Data> dataList = mMyAdapter.getDataList();
-        int unread = 0;
-        for (Data data: dataList) {
-            unread +=data.unread;
+        //计数按行标记保存，没有创建或已被回收的行也计入总数，总数的文本由计数驱动
+        Map<String, Integer> counts = new HashMap<>();
+        for (Data data: mMyAdapter.getDataList()) {
+            String mark = getRowMark(data);
+            DraggableManager.getInstance().setLeaderMark(mark, TIP_SUMMARY_MARK);
+            counts.put(mark, data.unread);
         }
-        mDraggableView.setText(String.valueOf(unread));
+        DraggableManager.getInstance().setCounts(counts);
         mDraggableView.setVisibility(View.VISIBLE);
     }
 
+    private static String getRowMark(Data data) {
+        return ROW_MARK_PREFIX + data.name;
+    }
+
     @Override
     public void onDragComplete(DraggableView draggableView) {
     }
@@ -71,11 +82,13 @@ public class MainListActivity extends AppCompatActivity implements DraggableView
     public void onDisappearComplete(DraggableView draggableView) {
 
         List<Data> dataList = mMyAdapter.getDataList();
+        Map<String, Integer> counts = new HashMap<>();
         for (Data data: dataList) {
             data.unread = 0;
+            counts.put(getRowMark(data), 0);
         }
+        DraggableManager.getInstance().setCounts(counts);
         mMyAdapter.setDataList(dataList);
-        mDraggableView.setText("0");
         mDraggableView.setVisibility(View.GONE);
     }
 
@@ -139,14 +152,11 @@ public class MainListActivity extends AppCompatActivity implements DraggableView
             }
             final Data data = getItem(position);
 
-            if (data.unread <= 0) {
-                viewHolder.mDraggableView.setVisibility(View.GONE);
-            } else {
-                viewHolder.mDraggableView.setText(String.valueOf(data.unread));
-                viewHolder.mDraggableView.setVisibility(View.VISIBLE);
-            }
+            viewHolder.mDraggableView.setVisibility(data.unread <= 0 ? View.GONE : View.VISIBLE);
             viewHolder.mTextView.setText(data.name);
+            viewHolder.mDraggableView.setMark(getRowMark(data));
             viewHolder.mDraggableView.setLeaderMark(TIP_SUMMARY_MARK);
+            viewHolder.mDraggableView.setCount(data.unread);
             viewHolder.mDraggableView.setSort(position);
             viewHolder.mDraggableView.setOnDragCompeteListener(new DraggableView.OnDragListener() {
                 @Override
@@ -156,8 +166,8 @@ public class MainListActivity extends AppCompatActivity implements DraggableView
                 @Override
                 public void onDisappearComplete(DraggableView draggableView) {
                     data.unread = 0;
+                    viewHolder.mDraggableView.setCount(0);
                     viewHolder.mDraggableView.setVisibility(View.GONE);
-                    initTipSummary();
                 }
             });
 